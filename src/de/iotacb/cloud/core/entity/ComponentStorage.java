@@ -0,0 +1,19 @@
+package de.iotacb.cloud.core.entity;
+
+/**
+ * Data of own components kept in arrays next to an {@link EntityStore}, indexed like the components of the store.
+ * Registered with {@link EntityStore#addStorage(ComponentStorage)} it is kept in sync with the packed entities.
+ */
+public interface ComponentStorage {
+	
+	/**
+	 * Called when a destroy moves the entity at the from index into the to index.
+	 */
+	void move(int from, int to);
+	
+	/**
+	 * Called when the capacity of the store grows, the arrays have to be at least that long afterwards.
+	 */
+	void grow(int capacity);
+	
+}
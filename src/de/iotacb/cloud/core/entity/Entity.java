@@ -3,21 +3,53 @@ package de.iotacb.cloud.core.entity;
 import de.iotacb.cloud.core.window.Window;
 import de.iotacb.cloud.utilities.input.Keys;
 import de.iotacb.cloud.utilities.math.Maths;
-import de.iotacb.cloud.utilities.math.Randoms;
 import de.iotacb.cloud.utilities.math.Vec;
+import de.iotacb.cloud.utilities.math.VecStack;
+import de.iotacb.cloud.utilities.render.RenderLayer;
 
 public abstract class Entity {
 	
+	static final EntityIdAllocator ID_ALLOCATOR = new EntityIdAllocator();
+	
 	public Vec location;
 	
+	/**
+	 * Location at the start of the current update, the world draws the entity between it and the location.
+	 */
+	public Vec previousLocation;
+	
 	public long entityId;
 	
+	boolean generatedId;
+	
 	public Window window;
 	
+	/**
+	 * Position of the entity inside the spatial grid of its world, -1 while it is not in a grid.
+	 */
+	public int gridBucket = -1, gridSlot;
+	
+	/**
+	 * Slots of the entity in the entity list and the type list of its world, -1 while it is not in a world.
+	 */
+	public int worldIndex = -1, typeIndex = -1;
+	
+	/**
+	 * Area the entity draws to relative to its location, a negative size means it has no bounds.
+	 */
+	double boundsX, boundsY, boundsWidth = -1, boundsHeight = -1;
+	
+	/**
+	 * Layer the entity is drawn into instead of the screen, assigned through the world.
+	 */
+	public RenderLayer renderLayer;
+	
 	private void createEntity(Window window, long entityId, double x, double y) {
 		this.window = window;
-		this.entityId = (entityId <= -1 ? Randoms.randomLong(Long.MAX_VALUE) : entityId);
+		this.generatedId = entityId <= -1;
+		this.entityId = (generatedId ? ID_ALLOCATOR.allocate() : entityId);
 		this.location = new Vec(x, y);
+		this.previousLocation = new Vec(x, y);
 		initialize();
 	}
 	
@@ -49,6 +81,86 @@ public abstract class Entity {
 	public abstract void update();
 	public abstract void draw();
 	
+	/**
+	 * Draws the entity at the given location, which the world interpolates between the previous and the current
+	 * location with the alpha of the frame, see {@link Window#setTickRate(int)}.
+	 * When the world is updated on a simulation thread, it is called with the location of the snapshot while
+	 * the simulation keeps updating the entity, so this must only read the given location and state which
+	 * does not change while the simulation runs, like images and sizes set once. By default it falls back to
+	 * {@link #draw()}, which reads the live location and is therefore only safe for entities which don't change;
+	 * all others have to override this and draw from the given location.
+	 */
+	public void draw(double x, double y) {
+		draw();
+	}
+	
+	public double getInterpolatedX(double alpha) {
+		return previousLocation.x + (location.x - previousLocation.x) * alpha;
+	}
+	
+	public double getInterpolatedY(double alpha) {
+		return previousLocation.y + (location.y - previousLocation.y) * alpha;
+	}
+	
+	/**
+	 * Moves the previous location to the location, so an entity which was placed somewhere is not drawn moving there.
+	 */
+	public void resetInterpolation() {
+		previousLocation.set(location);
+	}
+	
+	/**
+	 * Releases the generated id of the entity for reuse, once the entity was removed from its world for good.
+	 * The id may be handed to another entity afterwards, so the entity must not be added to a world again.
+	 */
+	public void destroy() {
+		if (this.generatedId) {
+			ID_ALLOCATOR.release(this.entityId);
+			this.generatedId = false;
+		}
+	}
+	
+	/**
+	 * Returns the allocator of the generated entity ids, explicit ids should not collide with its ids.
+	 */
+	public static EntityIdAllocator getIdAllocator() {
+		return ID_ALLOCATOR;
+	}
+	
+	/**
+	 * Sets the area the entity draws to relative to its location, the world skips drawing it while the area is off screen.
+	 */
+	public void setBounds(double x, double y, double width, double height) {
+		this.boundsX = x;
+		this.boundsY = y;
+		this.boundsWidth = width;
+		this.boundsHeight = height;
+	}
+	
+	public void setBounds(double width, double height) {
+		setBounds(0, 0, width, height);
+	}
+	
+	public boolean hasBounds() {
+		return boundsWidth >= 0 && boundsHeight >= 0;
+	}
+	
+	public double getBoundsX() {
+		return boundsX;
+	}
+	
+	public double getBoundsY() {
+		return boundsY;
+	}
+	
+	public double getBoundsWidth() {
+		return boundsWidth;
+	}
+	
+	public double getBoundsHeight() {
+		return boundsHeight;
+	}
+	
 	public void setLocation(double x, double y) {
 		location.set(x, y);
 	}
@@ -93,12 +205,10 @@ public abstract class Entity {
 		int moveX = this.window.getInput().getKey(keyLeft) ? -1 : this.window.getInput().getKey(keyRight) ? 1 : 0;
 		int moveY = this.window.getInput().getKey(keyUp) ? -1 : this.window.getInput().getKey(keyDown) ? 1 : 0;
 		
-		Vec input = new Vec(moveX, moveY);
-		Vec direction = input.normalize();
-		Vec velocity = direction.mul(speed, speed, speed);
-		Vec moveAmount = velocity.clone();
-		
-		this.location.add(moveAmount);
+		try (VecStack stack = VecStack.stackPush()) {
+			Vec velocity = stack.vec(moveX, moveY).normalize().scale(speed);
+			this.location.add(velocity);
+		}
 	}
 	
 	public void moveWASD(double speed) {
@@ -116,11 +226,7 @@ public abstract class Entity {
     	stickX = Math.abs(stickX) > threshold ? stickX : 0;
     	stickY = Math.abs(stickY) > threshold ? stickY : 0;
     	
-    	Vec input = new Vec(stickX, stickY);
-    	Vec velocity = input.mul(speed, speed, speed);
-    	Vec moveAmount = velocity.clone();
-		
-		this.location.add(moveAmount);
+		this.location.add(stickX * speed, stickY * speed);
     }
     
     public double getX() {
@@ -0,0 +1,100 @@
+package de.iotacb.cloud.core.entity;
+
+import java.util.Arrays;
+
+/**
+ * Hands out dense entity ids. The lower 32 bits of an id are an index, which is reused after the id was released,
+ * the upper 32 bits are a generation counter of that index, so a released id never matches the new owner of its index.
+ * The index can be used to look entities or their data up in arrays.
+ */
+public class EntityIdAllocator {
+	
+	int[] generations, freeIndices;
+	
+	int nextIndex, freeCount;
+	
+	public EntityIdAllocator() {
+		this(256);
+	}
+	
+	public EntityIdAllocator(int capacity) {
+		capacity = Math.max(16, capacity);
+		this.generations = new int[capacity];
+		this.freeIndices = new int[capacity];
+	}
+	
+	public synchronized long allocate() {
+		int index;
+		if (this.freeCount > 0) {
+			index = this.freeIndices[--this.freeCount];
+		} else {
+			if (this.nextIndex == this.generations.length) {
+				this.generations = Arrays.copyOf(this.generations, this.nextIndex * 2);
+			}
+			index = this.nextIndex++;
+			// the index may have been used before a clear, so its old ids must not match again
+			this.generations[index] = nextGeneration(this.generations[index]);
+		}
+		return pack(index, this.generations[index]);
+	}
+	
+	/**
+	 * Frees the index of the id for reuse, ids which are not alive are ignored.
+	 */
+	public synchronized void release(long id) {
+		if (!isAlive(id)) {
+			return;
+		}
+		int index = index(id);
+		this.generations[index] = nextGeneration(this.generations[index]);
+		if (this.freeCount == this.freeIndices.length) {
+			this.freeIndices = Arrays.copyOf(this.freeIndices, this.freeCount * 2);
+		}
+		this.freeIndices[this.freeCount++] = index;
+	}
+	
+	private static int nextGeneration(int generation) {
+		// generations stay positive, so ids are never negative
+		return generation == Integer.MAX_VALUE ? 1 : generation + 1;
+	}
+	
+	public synchronized boolean isAlive(long id) {
+		int index = index(id);
+		return id > 0 && index >= 0 && index < this.nextIndex && this.generations[index] == generation(id);
+	}
+	
+	/**
+	 * Releases every id, ids handed out before stay dead after their index is reused.
+	 */
+	public synchronized void clear() {
+		this.nextIndex = 0;
+		this.freeCount = 0;
+	}
+	
+	/**
+	 * Amount of ids which are currently in use.
+	 */
+	public synchronized int size() {
+		return nextIndex - freeCount;
+	}
+	
+	/**
+	 * Highest index handed out so far plus one, arrays indexed by the ids need this length.
+	 */
+	public synchronized int capacity() {
+		return nextIndex;
+	}
+	
+	public static long pack(int index, int generation) {
+		return (long) generation << 32 | (index & 0xFFFFFFFFL);
+	}
+	
+	public static int index(long id) {
+		return (int) id;
+	}
+	
+	public static int generation(long id) {
+		return (int) (id >>> 32);
+	}
+	
+}
@@ -0,0 +1,300 @@
+package de.iotacb.cloud.core.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Stores entities as components in primitive arrays instead of objects, for large amounts of simple entities like particles.
+ * The components of the entities are kept packed at the indices 0 to {@link #size()} - 1,
+ * destroying an entity moves the last one into its index. Ids stay the same for the lifetime of an entity.
+ * <p>
+ * Systems run over every entity which has all components of their mask.
+ * The store works next to the {@link Entity} classes and is updated and drawn by the world.
+ */
+public class EntityStore {
+	
+	public static final long POSITION = 1L, VELOCITY = 1L << 1, SIZE = 1L << 2, COLOR = 1L << 3, LIFETIME = 1L << 4;
+	
+	/**
+	 * The first bit which is free for own components. Their data can be kept in arrays of {@link #capacity()} length
+	 * through a {@link ComponentStorage}, which follows the entities when they are moved.
+	 */
+	public static final int CUSTOM_COMPONENT = 8;
+	
+	public double[] x, y, velocityX, velocityY, width, height, lifetime;
+	
+	public int[] color;
+	
+	public long[] masks;
+	
+	int[] ids, indices;
+	
+	int size, nextId, freeIds;
+	
+	ArrayList<EntitySystem> systems, drawSystems;
+	
+	ArrayList<ComponentStorage> storages;
+	
+	int[] queryResult;
+	
+	public EntityStore() {
+		this(1024);
+	}
+	
+	public EntityStore(int capacity) {
+		capacity = Math.max(16, capacity);
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.velocityX = new double[capacity];
+		this.velocityY = new double[capacity];
+		this.width = new double[capacity];
+		this.height = new double[capacity];
+		this.lifetime = new double[capacity];
+		this.color = new int[capacity];
+		this.masks = new long[capacity];
+		this.ids = new int[capacity];
+		this.indices = new int[capacity];
+		this.queryResult = new int[capacity];
+		this.freeIds = -1;
+		this.systems = new ArrayList<>();
+		this.drawSystems = new ArrayList<>();
+		this.storages = new ArrayList<>();
+	}
+	
+	/**
+	 * Creates an entity with the components of the mask and returns its id.
+	 */
+	public int create(long mask) {
+		if (this.size == this.masks.length) {
+			grow(this.size * 2);
+		}
+		int id;
+		if (this.freeIds != -1) {
+			// free ids are chained through the index table
+			id = this.freeIds;
+			this.freeIds = this.indices[id];
+		} else {
+			if (this.nextId == this.indices.length) {
+				this.indices = Arrays.copyOf(this.indices, this.nextId * 2);
+			}
+			id = this.nextId++;
+		}
+		int index = this.size++;
+		this.indices[id] = index;
+		this.ids[index] = id;
+		this.masks[index] = mask;
+		this.x[index] = 0;
+		this.y[index] = 0;
+		this.velocityX[index] = 0;
+		this.velocityY[index] = 0;
+		this.width[index] = 0;
+		this.height[index] = 0;
+		this.lifetime[index] = 0;
+		this.color[index] = 0xFFFFFFFF;
+		return id;
+	}
+	
+	public int create(long mask, double x, double y) {
+		int id = create(mask | POSITION);
+		int index = this.indices[id];
+		this.x[index] = x;
+		this.y[index] = y;
+		return id;
+	}
+	
+	/**
+	 * Destroys the entity, ids of destroyed entities are ignored.
+	 */
+	public void destroy(int id) {
+		if (isAlive(id)) {
+			destroyIndex(this.indices[id]);
+		}
+	}
+	
+	/**
+	 * Returns whether the id belongs to an entity which was not destroyed. The ids of destroyed entities
+	 * are reused by later entities, so an old id can belong to a new entity.
+	 */
+	public boolean isAlive(int id) {
+		if (id < 0 || id >= this.nextId) {
+			return false;
+		}
+		// the index table holds the free list links for destroyed ids, which never point at their own id
+		int index = this.indices[id];
+		return index >= 0 && index < this.size && this.ids[index] == id;
+	}
+	
+	/**
+	 * Destroys the entity at the index by moving the last entity into it. Systems which destroy entities
+	 * while iterating have to iterate backwards, so the moved entity was already visited.
+	 */
+	public void destroyIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			return;
+		}
+		int last = --this.size, id = this.ids[index];
+		if (index != last) {
+			this.x[index] = this.x[last];
+			this.y[index] = this.y[last];
+			this.velocityX[index] = this.velocityX[last];
+			this.velocityY[index] = this.velocityY[last];
+			this.width[index] = this.width[last];
+			this.height[index] = this.height[last];
+			this.lifetime[index] = this.lifetime[last];
+			this.color[index] = this.color[last];
+			this.masks[index] = this.masks[last];
+			this.ids[index] = this.ids[last];
+			this.indices[this.ids[index]] = index;
+			for (int i = 0; i < this.storages.size(); i++) {
+				this.storages.get(i).move(last, index);
+			}
+		}
+		this.masks[last] = 0;
+		this.indices[id] = this.freeIds;
+		this.freeIds = id;
+	}
+	
+	/**
+	 * Copies the packed components, ids and draw systems into the target, which can then be drawn while this store
+	 * is already updated on another thread. Data of custom components is not copied and the target can only be drawn.
+	 */
+	public void copyTo(EntityStore target) {
+		if (target.masks.length < this.size) {
+			target.grow(this.masks.length);
+		}
+		int size = this.size;
+		System.arraycopy(this.x, 0, target.x, 0, size);
+		System.arraycopy(this.y, 0, target.y, 0, size);
+		System.arraycopy(this.velocityX, 0, target.velocityX, 0, size);
+		System.arraycopy(this.velocityY, 0, target.velocityY, 0, size);
+		System.arraycopy(this.width, 0, target.width, 0, size);
+		System.arraycopy(this.height, 0, target.height, 0, size);
+		System.arraycopy(this.lifetime, 0, target.lifetime, 0, size);
+		System.arraycopy(this.color, 0, target.color, 0, size);
+		System.arraycopy(this.masks, 0, target.masks, 0, size);
+		System.arraycopy(this.ids, 0, target.ids, 0, size);
+		target.size = size;
+		target.nextId = 0;
+		target.freeIds = -1;
+		target.drawSystems.clear();
+		target.drawSystems.addAll(this.drawSystems);
+	}
+	
+	public void clear() {
+		Arrays.fill(this.masks, 0, this.size, 0);
+		this.size = 0;
+		this.nextId = 0;
+		this.freeIds = -1;
+	}
+	
+	private void grow(int capacity) {
+		this.x = Arrays.copyOf(this.x, capacity);
+		this.y = Arrays.copyOf(this.y, capacity);
+		this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+		this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+		this.width = Arrays.copyOf(this.width, capacity);
+		this.height = Arrays.copyOf(this.height, capacity);
+		this.lifetime = Arrays.copyOf(this.lifetime, capacity);
+		this.color = Arrays.copyOf(this.color, capacity);
+		this.masks = Arrays.copyOf(this.masks, capacity);
+		this.ids = Arrays.copyOf(this.ids, capacity);
+		this.queryResult = new int[capacity];
+		for (int i = 0; i < this.storages.size(); i++) {
+			this.storages.get(i).grow(capacity);
+		}
+	}
+	
+	/**
+	 * Keeps the data of own components in sync with the store, the storage is grown to the current capacity right away.
+	 */
+	public void addStorage(ComponentStorage storage) {
+		this.storages.add(storage);
+		storage.grow(capacity());
+	}
+	
+	public void removeStorage(ComponentStorage storage) {
+		this.storages.remove(storage);
+	}
+	
+	public void addComponents(int id, long mask) {
+		if (isAlive(id)) {
+			this.masks[this.indices[id]] |= mask;
+		}
+	}
+	
+	public void removeComponents(int id, long mask) {
+		if (isAlive(id)) {
+			this.masks[this.indices[id]] &= ~mask;
+		}
+	}
+	
+	public boolean hasComponents(int id, long mask) {
+		return isAlive(id) && (this.masks[this.indices[id]] & mask) == mask;
+	}
+	
+	/**
+	 * Returns the current index of the entity, which changes when other entities are destroyed, or -1 for destroyed entities.
+	 */
+	public int indexOf(int id) {
+		return isAlive(id) ? indices[id] : -1;
+	}
+	
+	public int idAt(int index) {
+		return ids[index];
+	}
+	
+	/**
+	 * Writes the indices of all entities having every component of the mask into the result, in ascending order.
+	 * Returns the amount of indices written.
+	 */
+	public int query(long mask, int[] result) {
+		int count = 0;
+		long[] masks = this.masks;
+		for (int index = 0; index < this.size; index++) {
+			if ((masks[index] & mask) == mask) {
+				result[count++] = index;
+			}
+		}
+		return count;
+	}
+	
+	public void addSystem(EntitySystem system) {
+		this.systems.add(system);
+	}
+	
+	public void addDrawSystem(EntitySystem system) {
+		this.drawSystems.add(system);
+	}
+	
+	public void removeSystem(EntitySystem system) {
+		this.systems.remove(system);
+		this.drawSystems.remove(system);
+	}
+	
+	public void update() {
+		runSystems(this.systems);
+	}
+	
+	public void draw() {
+		runSystems(this.drawSystems);
+	}
+	
+	private void runSystems(ArrayList<EntitySystem> systems) {
+		for (int i = 0; i < systems.size(); i++) {
+			EntitySystem system = systems.get(i);
+			int count = query(system.getMask(), this.queryResult);
+			if (count > 0) {
+				system.update(this, this.queryResult, count);
+			}
+		}
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public int capacity() {
+		return masks.length;
+	}
+	
+}
@@ -0,0 +1,15 @@
+package de.iotacb.cloud.core.entity;
+
+/**
+ * Logic which runs over all entities of an {@link EntityStore} that have every component of the mask.
+ */
+public interface EntitySystem {
+	
+	long getMask();
+	
+	/**
+	 * Called with the indices of the matching entities, sorted ascending. The first count entries are valid.
+	 */
+	void update(EntityStore store, int[] indices, int count);
+	
+}
@@ -0,0 +1,24 @@
+package de.iotacb.cloud.core.entity;
+
+/**
+ * Counts down the lifetime of every entity by one per update and destroys the entity when it runs out.
+ */
+public class LifetimeSystem implements EntitySystem {
+	
+	@Override
+	public long getMask() {
+		return EntityStore.LIFETIME;
+	}
+	
+	@Override
+	public void update(EntityStore store, int[] indices, int count) {
+		double[] lifetime = store.lifetime;
+		for (int i = count - 1; i >= 0; i--) {
+			int index = indices[i];
+			if (--lifetime[index] <= 0) {
+				store.destroyIndex(index);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,23 @@
+package de.iotacb.cloud.core.entity;
+
+/**
+ * Adds the velocity to the position of every entity once per update.
+ */
+public class MovementSystem implements EntitySystem {
+	
+	@Override
+	public long getMask() {
+		return EntityStore.POSITION | EntityStore.VELOCITY;
+	}
+	
+	@Override
+	public void update(EntityStore store, int[] indices, int count) {
+		double[] x = store.x, y = store.y, velocityX = store.velocityX, velocityY = store.velocityY;
+		for (int i = 0; i < count; i++) {
+			int index = indices[i];
+			x[index] += velocityX[index];
+			y[index] += velocityY[index];
+		}
+	}
+	
+}
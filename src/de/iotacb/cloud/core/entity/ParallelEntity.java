@@ -0,0 +1,11 @@
+package de.iotacb.cloud.core.entity;
+
+/**
+ * Marks entities whose update only reads shared state and writes its own fields.
+ * When the world updates in parallel, these entities are updated on worker threads,
+ * so their update must not call OpenGL or change other entities.
+ * Adding and removing entities is still allowed, the world queues it.
+ */
+public interface ParallelEntity {
+
+}
@@ -0,0 +1,28 @@
+package de.iotacb.cloud.core.entity;
+
+import de.iotacb.cloud.utilities.render.Render;
+
+/**
+ * Draws every entity as a filled rectangle in its color, best used with batching enabled in {@link Render}.
+ */
+public class RectangleSystem implements EntitySystem {
+	
+	@Override
+	public long getMask() {
+		return EntityStore.POSITION | EntityStore.SIZE | EntityStore.COLOR;
+	}
+	
+	@Override
+	public void update(EntityStore store, int[] indices, int count) {
+		int lastColor = 0;
+		for (int i = 0; i < count; i++) {
+			int index = indices[i], color = store.color[index];
+			if (i == 0 || color != lastColor) {
+				Render.color((color >> 16 & 0xFF) / 255.0, (color >> 8 & 0xFF) / 255.0, (color & 0xFF) / 255.0, (color >>> 24) / 255.0);
+				lastColor = color;
+			}
+			Render.rect(store.x[index], store.y[index], store.width[index], store.height[index], true);
+		}
+	}
+	
+}
@@ -21,7 +21,7 @@ public abstract class InputField extends Entity {
 
 	boolean hovered, focused, showCursor;
 
-	Timer cursorShowTimer, typeTimer, delTimer;
+	Timer cursorShowTimer, delTimer;
 
 	Text demoDrawText, typedDrawText;
 
@@ -75,7 +75,6 @@ public abstract class InputField extends Entity {
 		this.typedDrawText = new Text(10);
 
 		this.cursorShowTimer = new Timer();
-		this.typeTimer = new Timer();
 		this.delTimer = new Timer();
 
 		this.typedText = "";
@@ -108,14 +107,16 @@ public abstract class InputField extends Entity {
 				}
 			}
 
-			if (!window.getInput().noKeyPressed()) {
-				int lastKey = window.getInput().lastKey;
-				if (typeTimer.havePassed(100)) {
-					if ((lastKey >= 65 && lastKey <= 90) || (lastKey >= 97 && lastKey <= 122) || lastKey == 32) {
-						addLetter(Character.toString((char) (lastKey == 90 ? 89 : lastKey == 89 ? 90 : lastKey)));
-					}
+			String typedChars = window.getInput().getTypedChars();
+			for (int i = 0; i < typedChars.length(); i++) {
+				char letter = typedChars.charAt(i);
+				if (Character.isLetter(letter) || letter == ' ') {
+					addLetter(Character.toString(letter));
 				}
-				type(lastKey);
+			}
+
+			if (!window.getInput().noKeyPressed()) {
+				type(window.getInput().lastKey);
 			}
 		}
 	}
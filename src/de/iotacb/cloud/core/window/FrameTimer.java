@@ -4,14 +4,15 @@ import org.lwjgl.glfw.GLFW;
 
 public class FrameTimer {
 	
-	double lastLoopTime;
+	double lastLoopTime, counterTime;
 	
-	float timeCount;
+	float frameTime;
 	
 	int fps, fpsCount, ups, upsCount;
 	
 	public FrameTimer() {
 		lastLoopTime = getTime();
+		counterTime = lastLoopTime;
 	}
 	
 	public double getTime() {
@@ -22,7 +23,7 @@ public class FrameTimer {
 		double time = getTime();
 		float delta = (float) (time - lastLoopTime);
 		lastLoopTime = time;
-		timeCount += delta;
+		frameTime = delta;
 		return delta;
 	}
 	
@@ -30,19 +31,29 @@ public class FrameTimer {
 		fpsCount++;
 	}
 	
-	public void updateUPS() {
+	/**
+	 * Can be called from the simulation thread while the render thread counts frames.
+	 */
+	public synchronized void updateUPS() {
 		upsCount++;
 	}
 
-	public void updateCounters() {
-		if (timeCount > 1f) {
+	/**
+	 * Publishes the frames and updates counted during the last second, measured independently of the frame delta.
+	 */
+	public synchronized void updateCounters() {
+		double time = getTime();
+		if (time - counterTime >= 1) {
 			fps = fpsCount;
 			fpsCount = 0;
 			
 			ups = upsCount;
 			upsCount = 0;
 			
-			timeCount -= 1f;
+			counterTime += 1;
+			if (time - counterTime >= 1) {
+				counterTime = time;
+			}
 		}
 	}
 	
@@ -54,6 +65,10 @@ public class FrameTimer {
 		return ups > 0 ? ups : upsCount;
 	}
 	
+	public float getFrameTime() {
+		return frameTime;
+	}
+	
 	public double getLastLoopTime() {
 		return lastLoopTime;
 	}
@@ -39,6 +39,7 @@ import static org.lwjgl.system.MemoryUtil.NULL;
 
 import java.nio.DoubleBuffer;
 import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.glfw.GLFWFramebufferSizeCallback;
@@ -55,12 +56,29 @@ import de.iotacb.cloud.core.window.icon.ImageParser;
 import de.iotacb.cloud.core.world.World;
 import de.iotacb.cloud.utilities.input.Input;
 import de.iotacb.cloud.utilities.math.Vec;
+import de.iotacb.cloud.utilities.render.AssetLoader;
 import de.iotacb.cloud.utilities.render.Render;
+import de.iotacb.cloud.utilities.render.ShapeBatch;
+import de.iotacb.cloud.utilities.render.SpriteBatch;
+import de.iotacb.cloud.utilities.render.Text;
+import de.iotacb.cloud.utilities.render.Textures;
 
 public class Window {
 
+	AssetLoader assetLoader;
+
+	long assetUploadBudget;
+
 	float deltaTime;
 
+	double alpha;
+
+	int tickRate, maxCatchUpSteps;
+
+	boolean simulationThread;
+
+	volatile boolean simulationRunning;
+
 	int fpsCap, framebufferWidth, framebufferHeight, sampling;
 	GLFWFramebufferSizeCallback framebufferSizeCallback;
 
@@ -79,6 +97,10 @@ public class Window {
 
 	Vec windowSize, mouseLocation, lastMouseLocation;
 
+	// cursor polled on the main thread, copied into the mouse location by every update
+	double cursorX, cursorY;
+	final Object cursorLock = new Object();
+
 	GLFWWindowSizeCallback windowSizeCallback;
 
 	String windowTitle;
@@ -99,6 +121,8 @@ public class Window {
 		this.windowHeight = windowHeight;
 		this.windowTitle = windowTitle;
 		this.sampling = 0;
+		this.maxCatchUpSteps = 5;
+		this.alpha = 1;
 		this.windowSize = new Vec(windowWidth, windowHeight);
 		this.mouseLocation = new Vec();
 		this.lastMouseLocation = new Vec();
@@ -134,6 +158,8 @@ public class Window {
 		setGLFW();
 		inputHandler = new Input(this.windowId, this, System.getProperty("os.name").contains("Windows"));
 		timer = new FrameTimer();
+		assetLoader = new AssetLoader(Runtime.getRuntime().availableProcessors() - 1);
+		assetUploadBudget = 2000000L;
 		Render.window = this;
 	}
 
@@ -143,6 +169,9 @@ public class Window {
 	}
 
 	public void destroy() {
+		assetLoader.destroy();
+		inputHandler.destroy();
+		Text.destroy();
 		framebufferSizeCallback.free();
 		windowSizeCallback.free();
 		windowFocusCallback.free();
@@ -156,13 +185,26 @@ public class Window {
 		glViewport(0, 0, (int) windowWidth, (int) windowHeight);
 		glOrtho(0, windowWidth, windowHeight, 0, -1, 1);
 		glMatrixMode(GL_MODELVIEW);
+		glLoadIdentity();
 
 		glClear(GL_COLOR_BUFFER_BIT);
-		world.draw();
+		if (simulationRunning) {
+			world.drawSnapshot();
+		} else {
+			world.beginDeferring();
+			world.draw(alpha);
+			world.endDeferring();
+		}
+		Render.flush();
 		glfwSwapBuffers(this.windowId);
 
-		deltaTime = timer.getDelta();
+		float frameDelta = timer.getDelta();
+		if (tickRate <= 0 && !simulationRunning)
+			deltaTime = frameDelta;
 		timer.updateFPS();
+		Textures.nextFrame();
+		SpriteBatch.nextFrame();
+		ShapeBatch.nextFrame();
 	}
 
 	private void makeWindow() throws Exception {
@@ -239,16 +281,68 @@ public class Window {
 	private void updateCursor() {
 		DoubleBuffer bufferX = BufferUtils.createDoubleBuffer(1), bufferY = BufferUtils.createDoubleBuffer(1);
 		glfwGetCursorPos(windowId, bufferX, bufferY);
-		lastMouseLocation.set(mouseLocation);
-		mouseLocation.set(bufferX.get(), bufferY.get());
+		synchronized (cursorLock) {
+			cursorX = bufferX.get();
+			cursorY = bufferY.get();
+		}
 	}
 
-	private void updateScreen() throws Exception {
+	private void latchCursor() {
+		synchronized (cursorLock) {
+			lastMouseLocation.set(mouseLocation);
+			mouseLocation.set(cursorX, cursorY);
+		}
+	}
+
+	private void pollScreen() {
 		glfwPollEvents();
 		updateCursor();
+		inputHandler.pollGamepads();
+		assetLoader.update(assetUploadBudget);
+	}
+
+	private void updateWorld() {
 		timer.updateUPS();
-		world.update();
+		latchCursor();
 		inputHandler.update();
+		world.storePreviousLocations();
+		world.beginDeferring();
+		world.update();
+		world.endDeferring();
+	}
+
+	public void setAssetUploadBudget(double milliseconds) {
+		this.assetUploadBudget = (long) (milliseconds * 1000000L);
+	}
+
+	/**
+	 * Updates the world with a fixed rate independent of the frame rate, 0 updates once per frame.
+	 * The world is drawn with the interpolation alpha between the last two updates.
+	 */
+	public void setTickRate(int tickRate) {
+		this.tickRate = Math.max(0, tickRate);
+	}
+
+	/**
+	 * Maximum updates per frame when the simulation fell behind, the remaining time is dropped.
+	 */
+	public void setMaxCatchUpSteps(int maxCatchUpSteps) {
+		this.maxCatchUpSteps = Math.max(1, maxCatchUpSteps);
+	}
+
+	/**
+	 * Updates the world on its own thread with the tick rate (60 when none is set), while this thread
+	 * polls events and draws the latest snapshot of the world. Has to be set before {@link #show()}.
+	 * Only this thread has a gl context, so the world has to be set and initialized before, and entities
+	 * which create an Image or a RenderLayer in their constructor must not be created in an update;
+	 * create them in the initialization of the world or on this thread instead.
+	 */
+	public void setSimulationThread(boolean simulationThread) {
+		this.simulationThread = simulationThread;
+	}
+
+	public boolean isSimulationThread() {
+		return simulationThread;
 	}
 
 	public void setFPSCap(int fpsCap) {
@@ -296,15 +390,80 @@ public class Window {
 	}
 
 	public void show() throws Exception {
+		if (simulationThread) {
+			showSimulated();
+			return;
+		}
+		double accumulator = 0, lastTime = timer.getTime();
+		while (!glfwWindowShouldClose(windowId)) {
+			Sync.sync(fpsCap);
+			// events and asset uploads are handled once per frame, even when the frame runs no update
+			pollScreen();
+			if (tickRate > 0) {
+				double time = timer.getTime(), tickTime = 1.0 / tickRate;
+				accumulator += time - lastTime;
+				lastTime = time;
+
+				int steps = 0;
+				while (accumulator >= tickTime && steps < maxCatchUpSteps) {
+					deltaTime = (float) tickTime;
+					updateWorld();
+					accumulator -= tickTime;
+					steps++;
+				}
+				// drop the time which could not be caught up, the simulation slows down instead of spiraling
+				if (accumulator >= tickTime)
+					accumulator %= tickTime;
+				alpha = accumulator / tickTime;
+			} else {
+				updateWorld();
+				alpha = 1;
+			}
+			drawScreen();
+			timer.updateCounters();
+		}
+		destroy();
+	}
+
+	private void showSimulated() throws Exception {
+		Thread simulation = new Thread(this::simulate, "Cloud Simulation");
+		simulation.setDaemon(true);
+		simulationRunning = true;
+		simulation.start();
 		while (!glfwWindowShouldClose(windowId)) {
 			Sync.sync(fpsCap);
-			updateScreen();
+			pollScreen();
 			drawScreen();
 			timer.updateCounters();
 		}
+		simulationRunning = false;
+		simulation.join();
 		destroy();
 	}
 
+	private void simulate() {
+		long tickNanos = 1000000000L / (tickRate > 0 ? tickRate : 60);
+		long nextTick = System.nanoTime();
+		while (simulationRunning) {
+			deltaTime = tickNanos / 1e9f;
+			updateWorld();
+			world.publishSnapshot(tickNanos);
+
+			nextTick += tickNanos;
+			long wait = nextTick - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			} else if (-wait > tickNanos * maxCatchUpSteps) {
+				// too far behind, continue from now instead of catching up
+				nextTick = System.nanoTime();
+			}
+		}
+	}
+
+	public AssetLoader getAssetLoader() {
+		return assetLoader;
+	}
+
 	public String getWindowTitle() {
 		return windowTitle;
 	}
@@ -317,6 +476,29 @@ public class Window {
 		return timer.getFPS();
 	}
 
+	public int getUPS() {
+		return timer.getUPS();
+	}
+
+	/**
+	 * Seconds the last frame took, independent of the update rate.
+	 */
+	public float getFrameTime() {
+		return timer.getFrameTime();
+	}
+
+	public double getAlpha() {
+		return alpha;
+	}
+
+	public int getTickRate() {
+		return tickRate;
+	}
+
+	public int getMaxCatchUpSteps() {
+		return maxCatchUpSteps;
+	}
+
 	public int getFpsCap() {
 		return fpsCap;
 	}
@@ -1,19 +1,77 @@
 package de.iotacb.cloud.core.world;
 
+import static org.lwjgl.opengl.GL11.glPopMatrix;
+import static org.lwjgl.opengl.GL11.glPushMatrix;
+import static org.lwjgl.opengl.GL11.glScaled;
+import static org.lwjgl.opengl.GL11.glTranslated;
+
 import de.iotacb.cloud.core.entity.Entity;
 import de.iotacb.cloud.core.window.Window;
 import de.iotacb.cloud.utilities.math.Vec;
+import de.iotacb.cloud.utilities.render.Render;
 
+/**
+ * View of the world, the world applies it between {@link #begin()} and {@link #end()} while its entities are drawn.
+ * Everything drawn outside of that, like the gui, stays in window coordinates.
+ * The offset is the world location shown at the top left corner of the window.
+ */
 public class Camera {
 	
 	Window window;
 	
-	double xOffset, yOffset;
+	double xOffset, yOffset, zoom;
+	
+	boolean enabled;
+	
+	int depth;
 	
 	public Camera(Window window, double xOffset, double yOffset) {
 		this.window = window;
 		this.xOffset = xOffset;
 		this.yOffset = yOffset;
+		this.zoom = 1;
+		this.enabled = true;
+	}
+	
+	/**
+	 * Multiplies the current model view matrix with the view transform.
+	 */
+	public void apply() {
+		if (!enabled) {
+			return;
+		}
+		glScaled(zoom, zoom, 1);
+		glTranslated(-xOffset, -yOffset, 0);
+	}
+	
+	/**
+	 * Copies the view into the target, like the camera of a snapshot which is drawn while this one moves on.
+	 */
+	public void copyTo(Camera target) {
+		target.xOffset = xOffset;
+		target.yOffset = yOffset;
+		target.zoom = zoom;
+		target.enabled = enabled;
+	}
+	
+	/**
+	 * Draws in world coordinates until {@link #end()}, nested calls keep the view of the outer one.
+	 */
+	public void begin() {
+		if (depth++ > 0) {
+			return;
+		}
+		Render.flush();
+		glPushMatrix();
+		apply();
+	}
+	
+	public void end() {
+		if (depth == 0 || --depth > 0) {
+			return;
+		}
+		Render.flush();
+		glPopMatrix();
 	}
 	
 	public void move(double x, double y) {
@@ -22,8 +80,46 @@ public class Camera {
 	}
 	
 	public void centerOnEntity(Entity entity, Vec entitySize) {
-		xOffset = entity.location.x - window.getWindowWidth() / 2 + entitySize.x / 2;
-		yOffset = entity.location.y - window.getWindowHeight() / 2 + entitySize.y / 2;
+		xOffset = entity.location.x - getViewWidth() / 2 + entitySize.x / 2;
+		yOffset = entity.location.y - getViewHeight() / 2 + entitySize.y / 2;
+	}
+	
+	/**
+	 * Returns whether the rectangle overlaps the visible part of the world.
+	 */
+	public boolean isVisible(double x, double y, double width, double height) {
+		return x + width >= getViewX() && y + height >= getViewY() && x <= getViewX() + getViewWidth() && y <= getViewY() + getViewHeight();
+	}
+	
+	public double toWorldX(double screenX) {
+		return getViewX() + screenX / getZoom();
+	}
+	
+	public double toWorldY(double screenY) {
+		return getViewY() + screenY / getZoom();
+	}
+	
+	/**
+	 * Converts a location on the window, like the mouse location, into the world and returns the out vector.
+	 */
+	public Vec toWorld(Vec screen, Vec out) {
+		return out.set(toWorldX(screen.x), toWorldY(screen.y));
+	}
+	
+	public double getViewX() {
+		return enabled ? xOffset : 0;
+	}
+	
+	public double getViewY() {
+		return enabled ? yOffset : 0;
+	}
+	
+	public double getViewWidth() {
+		return window.getWindowWidth() / getZoom();
+	}
+	
+	public double getViewHeight() {
+		return window.getWindowHeight() / getZoom();
 	}
 	
 	public double getxOffset() {
@@ -34,6 +130,14 @@ public class Camera {
 		return yOffset;
 	}
 	
+	public double getZoom() {
+		return enabled ? zoom : 1;
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
 	public void setxOffset(double xOffset) {
 		this.xOffset = xOffset;
 	}
@@ -41,5 +145,21 @@ public class Camera {
 	public void setyOffset(double yOffset) {
 		this.yOffset = yOffset;
 	}
+	
+	/**
+	 * Scales the view around the top left corner, values above 1 zoom in.
+	 */
+	public void setZoom(double zoom) {
+		if (zoom > 0) {
+			this.zoom = zoom;
+		}
+	}
+	
+	/**
+	 * A disabled camera leaves the world drawn in window coordinates.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
 
 }
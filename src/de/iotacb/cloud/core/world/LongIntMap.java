@@ -0,0 +1,113 @@
+package de.iotacb.cloud.core.world;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to non negative int values, without boxing.
+ */
+class LongIntMap {
+
+	long[] keys;
+	int[] values;
+
+	int mask, size;
+
+	LongIntMap() {
+		this(64);
+	}
+
+	LongIntMap(int capacity) {
+		create(Integer.highestOneBit(Math.max(16, capacity - 1) << 1));
+	}
+
+	private void create(int capacity) {
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		Arrays.fill(this.values, -1);
+		this.mask = capacity - 1;
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ hash >>> 32) & this.mask;
+	}
+
+	/**
+	 * Returns the value of the key or -1.
+	 */
+	int get(long key) {
+		for (int slot = slot(key);; slot = slot + 1 & this.mask) {
+			if (this.values[slot] == -1) {
+				return -1;
+			}
+			if (this.keys[slot] == key) {
+				return this.values[slot];
+			}
+		}
+	}
+
+	void put(long key, int value) {
+		if (this.size * 2 >= this.keys.length) {
+			grow();
+		}
+		int slot = slot(key);
+		while (this.values[slot] != -1) {
+			if (this.keys[slot] == key) {
+				this.values[slot] = value;
+				return;
+			}
+			slot = slot + 1 & this.mask;
+		}
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		this.size++;
+	}
+
+	void remove(long key) {
+		int slot = slot(key);
+		while (true) {
+			if (this.values[slot] == -1) {
+				return;
+			}
+			if (this.keys[slot] == key) {
+				break;
+			}
+			slot = slot + 1 & this.mask;
+		}
+		this.size--;
+
+		// shift the following entries back so no lookup runs into the gap
+		int gap = slot;
+		for (int next = gap + 1 & this.mask; this.values[next] != -1; next = next + 1 & this.mask) {
+			int home = slot(this.keys[next]);
+			if ((next > gap && (home <= gap || home > next)) || (next < gap && home <= gap && home > next)) {
+				this.keys[gap] = this.keys[next];
+				this.values[gap] = this.values[next];
+				gap = next;
+			}
+		}
+		this.values[gap] = -1;
+	}
+
+	void clear() {
+		Arrays.fill(this.values, -1);
+		this.size = 0;
+	}
+
+	private void grow() {
+		long[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		create(oldKeys.length * 2);
+		this.size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != -1) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+}
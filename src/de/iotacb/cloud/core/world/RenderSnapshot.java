@@ -0,0 +1,183 @@
+package de.iotacb.cloud.core.world;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.iotacb.cloud.core.entity.Entity;
+import de.iotacb.cloud.core.entity.EntityStore;
+import de.iotacb.cloud.core.world.World.LayerEntry;
+import de.iotacb.cloud.utilities.render.RenderLayer;
+
+/**
+ * Copy of the entity list and the entity locations after an update, drawn by the render thread
+ * while the simulation thread already works on the next update.
+ * The components of the entity store are copied as well, so its draw systems never see a store in the middle of an update.
+ * The render layers are copied with the layer of every entity, so assigning layers during an update
+ * never changes what the render thread draws. The same goes for the bounds of the entities and the camera.
+ */
+public class RenderSnapshot {
+
+	Entity[] entities;
+	double[] x, y, previousX, previousY;
+
+	// per entity the bounds relative to its location, a negative size means it has no bounds
+	double[] boundsX, boundsY, boundsWidth, boundsHeight;
+
+	// per entity the layer it is drawn into, null when it is drawn directly
+	RenderLayer[] entityLayers;
+
+	// the layers in draw order with the version their entities were copied at
+	RenderLayer[] layers;
+	int[] layerVersions;
+	int[] layerPlacements;
+
+	int layerCount;
+
+	EntityStore store;
+
+	Camera camera;
+
+	int size;
+
+	long tick;
+
+	// when the snapshot was published and how long an update takes, to interpolate between the updates
+	long time, tickNanos;
+
+	RenderSnapshot() {
+		this.entities = new Entity[64];
+		this.x = new double[64];
+		this.y = new double[64];
+		this.previousX = new double[64];
+		this.previousY = new double[64];
+		this.boundsX = new double[64];
+		this.boundsY = new double[64];
+		this.boundsWidth = new double[64];
+		this.boundsHeight = new double[64];
+		this.entityLayers = new RenderLayer[64];
+		this.layers = new RenderLayer[4];
+		this.layerVersions = new int[4];
+		this.layerPlacements = new int[4];
+	}
+
+	void capture(List<Entity> entities, List<LayerEntry> layers, EntityStore store, Camera camera, long tick, long tickNanos) {
+		int size = entities.size();
+		if (size > this.entities.length) {
+			int capacity = Math.max(size, this.entities.length * 2);
+			this.entities = new Entity[capacity];
+			this.x = new double[capacity];
+			this.y = new double[capacity];
+			this.previousX = new double[capacity];
+			this.previousY = new double[capacity];
+			this.boundsX = new double[capacity];
+			this.boundsY = new double[capacity];
+			this.boundsWidth = new double[capacity];
+			this.boundsHeight = new double[capacity];
+			this.entityLayers = new RenderLayer[capacity];
+		}
+		for (int i = 0; i < size; i++) {
+			Entity entity = entities.get(i);
+			this.entities[i] = entity;
+			this.x[i] = entity.location.x;
+			this.y[i] = entity.location.y;
+			this.previousX[i] = entity.previousLocation.x;
+			this.previousY[i] = entity.previousLocation.y;
+			this.boundsX[i] = entity.getBoundsX();
+			this.boundsY[i] = entity.getBoundsY();
+			this.boundsWidth[i] = entity.getBoundsWidth();
+			this.boundsHeight[i] = entity.getBoundsHeight();
+			this.entityLayers[i] = entity.renderLayer;
+		}
+		// release removed entities
+		if (size < this.size) {
+			Arrays.fill(this.entities, size, this.size, null);
+			Arrays.fill(this.entityLayers, size, this.size, null);
+		}
+		this.size = size;
+
+		int layerCount = layers.size();
+		if (layerCount > this.layers.length) {
+			int capacity = Math.max(layerCount, this.layers.length * 2);
+			this.layers = new RenderLayer[capacity];
+			this.layerVersions = new int[capacity];
+			this.layerPlacements = new int[capacity];
+		}
+		for (int i = 0; i < layerCount; i++) {
+			LayerEntry entry = layers.get(i);
+			this.layers[i] = entry.layer;
+			this.layerVersions[i] = entry.layer.getVersion();
+			this.layerPlacements[i] = entry.placement;
+		}
+		if (layerCount < this.layerCount) {
+			Arrays.fill(this.layers, layerCount, this.layerCount, null);
+		}
+		this.layerCount = layerCount;
+		this.tick = tick;
+		this.tickNanos = tickNanos;
+		this.time = System.nanoTime();
+
+		if (this.camera == null) {
+			this.camera = new Camera(camera.window, 0, 0);
+		}
+		camera.copyTo(this.camera);
+
+		if (store != null) {
+			if (this.store == null) {
+				this.store = new EntityStore(store.capacity());
+			}
+			store.copyTo(this.store);
+		}
+	}
+
+	public Entity getEntity(int index) {
+		return entities[index];
+	}
+
+	public double getX(int index) {
+		return x[index];
+	}
+
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Returns the copy of the entity store, null when the world has none.
+	 */
+	public EntityStore getEntityStore() {
+		return store;
+	}
+
+	/**
+	 * Returns the layer the entity was drawn into when the snapshot was taken, null when it was drawn directly.
+	 */
+	/**
+	 * Returns how far the render thread is between the previous and this snapshot, from 0 to 1.
+	 */
+	public double getAlpha() {
+		return tickNanos <= 0 ? 1 : Math.min(1, (System.nanoTime() - time) / (double) tickNanos);
+	}
+
+	public RenderLayer getLayer(int index) {
+		return entityLayers[index];
+	}
+
+	/**
+	 * Returns the copy of the camera taken with the snapshot.
+	 */
+	public Camera getCamera() {
+		return camera;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Number of the update this snapshot was taken after.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+}
@@ -0,0 +1,274 @@
+package de.iotacb.cloud.core.world;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.iotacb.cloud.core.entity.Entity;
+
+/**
+ * Uniform grid which hashes the cells into a fixed amount of buckets, so the world can be unbounded.
+ * Entities are stored by their location, queries check the real location so cells sharing a bucket don't matter.
+ * Queries can run on several threads at once, like from parallel entity updates, as long as the grid is not changed meanwhile.
+ */
+public class SpatialGrid {
+	
+	double cellSize;
+	
+	Entity[][] buckets;
+	int[] bucketSizes;
+	
+	int mask, size;
+	
+	// every thread marks the buckets it visited on its own, so concurrent queries don't skip each others buckets
+	final ThreadLocal<Visits> visits = ThreadLocal.withInitial(Visits::new);
+	
+	public SpatialGrid(double cellSize) {
+		this(cellSize, 4096);
+	}
+	
+	public SpatialGrid(double cellSize, int bucketCount) {
+		this.cellSize = cellSize;
+		createBuckets(Integer.highestOneBit(Math.max(16, bucketCount - 1) << 1));
+	}
+	
+	private void createBuckets(int bucketCount) {
+		this.buckets = new Entity[bucketCount][];
+		this.bucketSizes = new int[bucketCount];
+		this.mask = bucketCount - 1;
+	}
+	
+	int cell(double value) {
+		return (int) Math.floor(value / this.cellSize);
+	}
+	
+	int bucket(int cellX, int cellY) {
+		return (cellX * 73856093 ^ cellY * 19349663) & this.mask;
+	}
+	
+	public void add(Entity entity) {
+		if (entity.gridBucket != -1) {
+			return;
+		}
+		if (this.size >= this.buckets.length * 4) {
+			rehash();
+		}
+		insert(entity, bucket(cell(entity.location.x), cell(entity.location.y)));
+		this.size++;
+	}
+	
+	public void remove(Entity entity) {
+		if (entity.gridBucket == -1) {
+			return;
+		}
+		detach(entity);
+		this.size--;
+	}
+	
+	/**
+	 * Moves the entity into the bucket of its current location, cheap when it didn't change its cell.
+	 */
+	public void update(Entity entity) {
+		if (entity.gridBucket == -1) {
+			return;
+		}
+		int bucket = bucket(cell(entity.location.x), cell(entity.location.y));
+		if (bucket != entity.gridBucket) {
+			detach(entity);
+			insert(entity, bucket);
+		}
+	}
+	
+	public void clear() {
+		for (int i = 0; i < this.buckets.length; i++) {
+			for (int j = 0; j < this.bucketSizes[i]; j++) {
+				this.buckets[i][j].gridBucket = -1;
+				this.buckets[i][j] = null;
+			}
+			this.bucketSizes[i] = 0;
+		}
+		this.size = 0;
+	}
+	
+	private void insert(Entity entity, int bucket) {
+		Entity[] entities = this.buckets[bucket];
+		int bucketSize = this.bucketSizes[bucket];
+		if (entities == null) {
+			entities = this.buckets[bucket] = new Entity[4];
+		} else if (bucketSize == entities.length) {
+			entities = this.buckets[bucket] = Arrays.copyOf(entities, bucketSize * 2);
+		}
+		entities[bucketSize] = entity;
+		entity.gridBucket = bucket;
+		entity.gridSlot = bucketSize;
+		this.bucketSizes[bucket]++;
+	}
+	
+	private void detach(Entity entity) {
+		int bucket = entity.gridBucket, last = --this.bucketSizes[bucket];
+		Entity[] entities = this.buckets[bucket];
+		Entity moved = entities[last];
+		entities[entity.gridSlot] = moved;
+		moved.gridSlot = entity.gridSlot;
+		entities[last] = null;
+		entity.gridBucket = -1;
+	}
+	
+	private void rehash() {
+		Entity[][] oldBuckets = this.buckets;
+		int[] oldSizes = this.bucketSizes;
+		createBuckets(oldBuckets.length * 2);
+		for (int i = 0; i < oldBuckets.length; i++) {
+			for (int j = 0; j < oldSizes[i]; j++) {
+				Entity entity = oldBuckets[i][j];
+				insert(entity, bucket(cell(entity.location.x), cell(entity.location.y)));
+			}
+		}
+	}
+	
+	/**
+	 * Starts a new query on the calling thread and returns its visited buckets.
+	 */
+	private Visits nextStamp() {
+		Visits visits = this.visits.get();
+		if (visits.stamps.length != this.buckets.length) {
+			visits.stamps = new int[this.buckets.length];
+			visits.stamp = 0;
+		}
+		if (++visits.stamp == 0) {
+			Arrays.fill(visits.stamps, 0);
+			visits.stamp = 1;
+		}
+		return visits;
+	}
+	
+	/**
+	 * Adds every entity located inside of the rectangle to the result list and returns it.
+	 */
+	public List<Entity> queryRect(double x, double y, double width, double height, List<Entity> result) {
+		return query(x, y, x + width, y + height, x, y, -1, result);
+	}
+	
+	/**
+	 * Adds every entity located inside of the circle to the result list and returns it.
+	 */
+	public List<Entity> queryRadius(double x, double y, double radius, List<Entity> result) {
+		return query(x - radius, y - radius, x + radius, y + radius, x, y, radius * radius, result);
+	}
+	
+	private List<Entity> query(double minX, double minY, double maxX, double maxY, double centerX, double centerY,
+			double radiusSq, List<Entity> result) {
+		Visits visits = nextStamp();
+		int minCellX = cell(minX), minCellY = cell(minY), maxCellX = cell(maxX), maxCellY = cell(maxY);
+		boolean allBuckets = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) >= this.buckets.length;
+		
+		if (allBuckets) {
+			for (int bucket = 0; bucket < this.buckets.length; bucket++) {
+				collect(bucket, minX, minY, maxX, maxY, centerX, centerY, radiusSq, result);
+			}
+		} else {
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+				for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+					int bucket = bucket(cellX, cellY);
+					if (visits.visit(bucket)) {
+						collect(bucket, minX, minY, maxX, maxY, centerX, centerY, radiusSq, result);
+					}
+				}
+			}
+		}
+		return result;
+	}
+	
+	private void collect(int bucket, double minX, double minY, double maxX, double maxY, double centerX, double centerY,
+			double radiusSq, List<Entity> result) {
+		Entity[] entities = this.buckets[bucket];
+		for (int i = 0; i < this.bucketSizes[bucket]; i++) {
+			Entity entity = entities[i];
+			double x = entity.location.x, y = entity.location.y;
+			if (x < minX || x > maxX || y < minY || y > maxY) {
+				continue;
+			}
+			if (radiusSq >= 0) {
+				double diffX = x - centerX, diffY = y - centerY;
+				if (diffX * diffX + diffY * diffY > radiusSq) {
+					continue;
+				}
+			}
+			result.add(entity);
+		}
+	}
+	
+	/**
+	 * Returns the entity closest to the location within the maximum radius, or null.
+	 * The excluded entity (usually the one asking) is skipped.
+	 */
+	public Entity nearest(double x, double y, double maxRadius, Entity exclude) {
+		Visits visits = nextStamp();
+		int centerX = cell(x), centerY = cell(y);
+		int maxRing = (int) Math.min(Math.ceil(maxRadius / this.cellSize), 1 << 15);
+		int visited = 0;
+		Entity nearest = null;
+		double nearestSq = maxRadius * maxRadius;
+		
+		for (int ring = 0; ring <= maxRing; ring++) {
+			for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+				// the inner cells were visited by the smaller rings already
+				int step = (cellX == centerX - ring || cellX == centerX + ring) ? 1 : Math.max(1, ring * 2);
+				for (int cellY = centerY - ring; cellY <= centerY + ring; cellY += step) {
+					int bucket = bucket(cellX, cellY);
+					if (!visits.visit(bucket)) {
+						continue;
+					}
+					visited++;
+					Entity[] entities = this.buckets[bucket];
+					for (int i = 0; i < this.bucketSizes[bucket]; i++) {
+						Entity entity = entities[i];
+						if (entity == exclude) {
+							continue;
+						}
+						double diffX = entity.location.x - x, diffY = entity.location.y - y;
+						double distanceSq = diffX * diffX + diffY * diffY;
+						if (distanceSq <= nearestSq) {
+							nearest = entity;
+							nearestSq = distanceSq;
+						}
+					}
+				}
+			}
+			// everything outside of this ring is at least ring * cellSize away
+			double ringDistance = ring * this.cellSize;
+			if ((nearest != null && nearestSq <= ringDistance * ringDistance) || visited == this.buckets.length) {
+				break;
+			}
+		}
+		return nearest;
+	}
+	
+	public Entity nearest(double x, double y, double maxRadius) {
+		return nearest(x, y, maxRadius, null);
+	}
+	
+	public double getCellSize() {
+		return cellSize;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	static class Visits {
+		
+		int[] stamps = new int[0];
+		
+		int stamp;
+		
+		boolean visit(int bucket) {
+			if (this.stamps[bucket] == this.stamp) {
+				return false;
+			}
+			this.stamps[bucket] = this.stamp;
+			return true;
+		}
+	
+	}
+
+}
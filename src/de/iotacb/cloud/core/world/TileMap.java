@@ -0,0 +1,436 @@
+package de.iotacb.cloud.core.world;
+
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_LIGHTING;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_COORD_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
+import static org.lwjgl.opengl.GL11.glColor4f;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
+import static org.lwjgl.opengl.GL11.glTexCoordPointer;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.lwjgl.BufferUtils;
+
+import de.iotacb.cloud.utilities.render.Image;
+import de.iotacb.cloud.utilities.render.Render;
+import de.iotacb.cloud.utilities.render.Textures;
+
+/**
+ * Grid of tile ids drawn from a tileset texture, where the tiles are laid out in rows.
+ * Id 0 is an empty tile, id n is the n-th tile of the tileset counted from the top left.
+ * <p>
+ * The map is split into chunks of {@link #CHUNK_SIZE} squared tiles. The quads of a chunk are built
+ * into a vertex buffer once and only rebuilt after one of its tiles changed, so drawing a chunk is one draw call.
+ * Only the chunks inside of the view of the camera are drawn.
+ */
+public class TileMap {
+
+	public static final int CHUNK_SIZE = 16;
+
+	static final int VERTEX_SIZE = 4, TILE_SIZE = VERTEX_SIZE * 4;
+
+	// magic number of the binary layout, followed by the columns, the rows and one short per tile
+	static final int BINARY_MAGIC = 0x434C544D;
+
+	short[] tiles;
+
+	int columns, rows, chunkColumns, chunkRows;
+
+	// per chunk: vertex buffer, number of vertices and whether the tiles changed since it was built
+	int[] chunkBuffers, chunkVertices;
+	boolean[] chunkDirty;
+
+	FloatBuffer chunkData;
+
+	double x, y, tileSize;
+
+	Image tilesetImage;
+
+	int tilesetTexture, tilesetColumns, tilesetRows;
+
+	int drawnChunks, rebuiltChunks;
+
+	public TileMap(int columns, int rows, double tileSize) {
+		this.columns = columns;
+		this.rows = rows;
+		this.tileSize = tileSize;
+		this.tiles = new short[columns * rows];
+
+		this.chunkColumns = (columns + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		this.chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		int chunks = this.chunkColumns * this.chunkRows;
+		this.chunkBuffers = new int[chunks];
+		this.chunkVertices = new int[chunks];
+		this.chunkDirty = new boolean[chunks];
+		Arrays.fill(this.chunkDirty, true);
+	}
+
+	/**
+	 * Uses the image as tileset, which has the given amount of tiles per row and column.
+	 * The image may still be loading, the map is drawn once it is uploaded.
+	 */
+	public void setTileset(Image image, int tilesetColumns, int tilesetRows) {
+		this.tilesetImage = image;
+		setTileset(0, tilesetColumns, tilesetRows);
+	}
+
+	public void setTileset(int textureId, int tilesetColumns, int tilesetRows) {
+		this.tilesetTexture = textureId;
+		this.tilesetColumns = Math.max(1, tilesetColumns);
+		this.tilesetRows = Math.max(1, tilesetRows);
+		invalidate();
+	}
+
+	private int getTilesetTexture() {
+		return this.tilesetImage != null ? this.tilesetImage.getImageId() : this.tilesetTexture;
+	}
+
+	public boolean isInside(int column, int row) {
+		return column >= 0 && row >= 0 && column < this.columns && row < this.rows;
+	}
+
+	/**
+	 * Returns the id of the tile, 0 for empty and outside tiles.
+	 */
+	public int getTile(int column, int row) {
+		return isInside(column, row) ? this.tiles[row * this.columns + column] & 0xFFFF : 0;
+	}
+
+	/**
+	 * Sets the id of the tile, ids outside of 0 to 65535 do not fit into the map and are rejected.
+	 */
+	public void setTile(int column, int row, int tile) {
+		if (tile < 0 || tile > 0xFFFF) {
+			try {
+				throw new Exception("Tile id " + tile + " is outside of 0 to 65535. Error: #010");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		if (!isInside(column, row)) {
+			return;
+		}
+		int index = row * this.columns + column;
+		if ((this.tiles[index] & 0xFFFF) == tile) {
+			return;
+		}
+		this.tiles[index] = (short) tile;
+		this.chunkDirty[(row / CHUNK_SIZE) * this.chunkColumns + column / CHUNK_SIZE] = true;
+	}
+
+	/**
+	 * Returns the id of the tile at the world location.
+	 */
+	public int getTileAt(double worldX, double worldY) {
+		return getTile(getColumn(worldX), getRow(worldY));
+	}
+
+	public int getColumn(double worldX) {
+		return (int) Math.floor((worldX - this.x) / this.tileSize);
+	}
+
+	public int getRow(double worldY) {
+		return (int) Math.floor((worldY - this.y) / this.tileSize);
+	}
+
+	/**
+	 * Rebuilds every chunk on the next draw.
+	 */
+	public void invalidate() {
+		Arrays.fill(this.chunkDirty, true);
+	}
+
+	/**
+	 * Draws the chunks inside of the view of the camera, transformed by the camera.
+	 */
+	public void draw(Camera camera) {
+		camera.begin();
+		draw(camera.getViewX(), camera.getViewY(), camera.getViewWidth(), camera.getViewHeight());
+		camera.end();
+	}
+
+	/**
+	 * Draws the chunks overlapping the rectangle in world coordinates.
+	 */
+	public void draw(double viewX, double viewY, double viewWidth, double viewHeight) {
+		this.drawnChunks = 0;
+		this.rebuiltChunks = 0;
+		int textureId = getTilesetTexture();
+		if (textureId == 0) {
+			return;
+		}
+
+		double chunkSize = this.tileSize * CHUNK_SIZE;
+		int minChunkX = Math.max(0, (int) Math.floor((viewX - this.x) / chunkSize));
+		int minChunkY = Math.max(0, (int) Math.floor((viewY - this.y) / chunkSize));
+		int maxChunkX = Math.min(this.chunkColumns - 1, (int) Math.floor((viewX + viewWidth - this.x) / chunkSize));
+		int maxChunkY = Math.min(this.chunkRows - 1, (int) Math.floor((viewY + viewHeight - this.y) / chunkSize));
+		if (minChunkX > maxChunkX || minChunkY > maxChunkY) {
+			return;
+		}
+
+		Render.flush();
+		Render.enable(GL_TEXTURE_2D);
+		Render.enable(GL_BLEND);
+		Render.disable(GL_LIGHTING);
+		Render.blendAlpha();
+		glColor4f(1, 1, 1, 1);
+		Textures.bind(textureId);
+
+		glEnableClientState(GL_VERTEX_ARRAY);
+		glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+		for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				int chunk = chunkY * this.chunkColumns + chunkX;
+				if (this.chunkDirty[chunk]) {
+					buildChunk(chunkX, chunkY);
+					this.rebuiltChunks++;
+				}
+				if (this.chunkVertices[chunk] == 0) {
+					continue;
+				}
+				glBindBuffer(GL_ARRAY_BUFFER, this.chunkBuffers[chunk]);
+				glVertexPointer(2, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 0);
+				glTexCoordPointer(2, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 2 * Float.BYTES);
+				glDrawArrays(GL_QUADS, 0, this.chunkVertices[chunk]);
+				this.drawnChunks++;
+			}
+		}
+		glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+		glDisableClientState(GL_VERTEX_ARRAY);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+		Render.enable(GL_LIGHTING);
+		Render.disable(GL_BLEND);
+		Render.disable(GL_TEXTURE_2D);
+	}
+
+	private void buildChunk(int chunkX, int chunkY) {
+		if (this.chunkData == null) {
+			this.chunkData = BufferUtils.createFloatBuffer(CHUNK_SIZE * CHUNK_SIZE * TILE_SIZE);
+		}
+		FloatBuffer data = this.chunkData;
+		data.clear();
+
+		float tileWidth = 1f / this.tilesetColumns, tileHeight = 1f / this.tilesetRows;
+		int startColumn = chunkX * CHUNK_SIZE, startRow = chunkY * CHUNK_SIZE;
+		int endColumn = Math.min(this.columns, startColumn + CHUNK_SIZE), endRow = Math.min(this.rows, startRow + CHUNK_SIZE);
+		for (int row = startRow; row < endRow; row++) {
+			for (int column = startColumn; column < endColumn; column++) {
+				int tile = this.tiles[row * this.columns + column] & 0xFFFF;
+				if (tile == 0 || tile > this.tilesetColumns * this.tilesetRows) {
+					continue;
+				}
+				float u1 = ((tile - 1) % this.tilesetColumns) * tileWidth, v1 = ((tile - 1) / this.tilesetColumns) * tileHeight;
+				float u2 = u1 + tileWidth, v2 = v1 + tileHeight;
+				float x1 = (float) (this.x + column * this.tileSize), y1 = (float) (this.y + row * this.tileSize);
+				float x2 = (float) (x1 + this.tileSize), y2 = (float) (y1 + this.tileSize);
+				data.put(x1).put(y2).put(u1).put(v2);
+				data.put(x2).put(y2).put(u2).put(v2);
+				data.put(x2).put(y1).put(u2).put(v1);
+				data.put(x1).put(y1).put(u1).put(v1);
+			}
+		}
+		data.flip();
+
+		int chunk = chunkY * this.chunkColumns + chunkX;
+		if (this.chunkBuffers[chunk] == 0) {
+			this.chunkBuffers[chunk] = glGenBuffers();
+		}
+		glBindBuffer(GL_ARRAY_BUFFER, this.chunkBuffers[chunk]);
+		glBufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+		this.chunkVertices[chunk] = data.limit() / VERTEX_SIZE;
+		this.chunkDirty[chunk] = false;
+	}
+
+	/**
+	 * Deletes the vertex buffers of the chunks, drawing again rebuilds them.
+	 */
+	public void destroy() {
+		for (int i = 0; i < this.chunkBuffers.length; i++) {
+			if (this.chunkBuffers[i] != 0) {
+				glDeleteBuffers(this.chunkBuffers[i]);
+				this.chunkBuffers[i] = 0;
+			}
+		}
+		invalidate();
+	}
+
+	/**
+	 * Loads a map with one row per line and the tile ids separated by commas, missing ids are empty.
+	 * Ids which are no numbers or outside of 0 to 65535 are reported with their line.
+	 */
+	public static TileMap loadCsv(File file, double tileSize) throws IOException {
+		List<short[]> lines = new ArrayList<>();
+		int columns = 0, lineNumber = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				String[] values = line.split(",");
+				short[] ids = new short[values.length];
+				for (int column = 0; column < values.length; column++) {
+					String value = values[column].trim();
+					if (value.isEmpty()) {
+						continue;
+					}
+					int id;
+					try {
+						id = Integer.parseInt(value);
+					} catch (NumberFormatException e) {
+						throw new IOException("Invalid tile id \"" + value + "\" in line " + lineNumber + " of " + file, e);
+					}
+					if (id < 0 || id > 0xFFFF) {
+						throw new IOException("Tile id " + id + " in line " + lineNumber + " of " + file + " is outside of 0 to 65535");
+					}
+					ids[column] = (short) id;
+				}
+				columns = Math.max(columns, ids.length);
+				lines.add(ids);
+			}
+		}
+		if ((long) columns * lines.size() > Integer.MAX_VALUE) {
+			throw new IOException("Tile map is too large: " + file);
+		}
+
+		TileMap map = new TileMap(columns, lines.size(), tileSize);
+		for (int row = 0; row < lines.size(); row++) {
+			short[] ids = lines.get(row);
+			System.arraycopy(ids, 0, map.tiles, row * columns, ids.length);
+		}
+		return map;
+	}
+
+	/**
+	 * Loads a map written by {@link #saveBinary(File)}, the size in the header has to match the size of the file.
+	 */
+	public static TileMap loadBinary(File file, double tileSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(12);
+			readFully(channel, header);
+			if (header.getInt() != BINARY_MAGIC) {
+				throw new IOException("Not a tile map file: " + file);
+			}
+			int columns = header.getInt(), rows = header.getInt();
+			if (columns <= 0 || rows <= 0) {
+				throw new IOException("Invalid tile map size " + columns + "x" + rows + ": " + file);
+			}
+			long tileBytes = (long) columns * rows * Short.BYTES;
+			if (tileBytes > Integer.MAX_VALUE || tileBytes != channel.size() - header.capacity()) {
+				throw new IOException("Tile map size " + columns + "x" + rows + " does not match the file: " + file);
+			}
+
+			TileMap map = new TileMap(columns, rows, tileSize);
+			ByteBuffer data = ByteBuffer.allocateDirect((int) tileBytes);
+			readFully(channel, data);
+			data.asShortBuffer().get(map.tiles);
+			return map;
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) == -1) {
+				throw new IOException("Unexpected end of the tile map file");
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Writes the map as the magic number, the columns and the rows followed by one short per tile, row by row.
+	 */
+	public void saveBinary(File file) throws IOException {
+		ByteBuffer data = ByteBuffer.allocateDirect(12 + this.tiles.length * Short.BYTES);
+		data.putInt(BINARY_MAGIC).putInt(this.columns).putInt(this.rows);
+		data.asShortBuffer().put(this.tiles);
+		data.position(data.limit());
+		data.flip();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				channel.write(data);
+			}
+		}
+	}
+
+	/**
+	 * Moves the top left corner of the map to the world location.
+	 */
+	public void setLocation(double x, double y) {
+		this.x = x;
+		this.y = y;
+		invalidate();
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getTileSize() {
+		return tileSize;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public double getWidth() {
+		return columns * tileSize;
+	}
+
+	public double getHeight() {
+		return rows * tileSize;
+	}
+
+	/**
+	 * Number of chunks drawn by the last draw.
+	 */
+	public int getDrawnChunks() {
+		return drawnChunks;
+	}
+
+	/**
+	 * Number of chunks rebuilt by the last draw.
+	 */
+	public int getRebuiltChunks() {
+		return rebuiltChunks;
+	}
+
+}
@@ -1,22 +1,95 @@
 package de.iotacb.cloud.core.world;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import de.iotacb.cloud.core.entity.Entity;
+import de.iotacb.cloud.core.entity.EntityStore;
+import de.iotacb.cloud.core.entity.ParallelEntity;
 import de.iotacb.cloud.core.window.Window;
+import de.iotacb.cloud.utilities.math.Maths;
+import de.iotacb.cloud.utilities.render.RenderLayer;
 
+/**
+ * Entities are looked up by id and type through indices, so adding and removing them is constant time.
+ * Removing an entity moves the last entity into its slot, the order of the entity list
+ * (and therefore the draw order) is only kept for entities which were added after the last removal.
+ * <p>
+ * While the world updates or draws, adding and removing entities is queued and applied
+ * once the phase is over, so entities can spawn and remove others from within their own update.
+ * <p>
+ * With culling enabled only the entities inside of the view of the camera are drawn.
+ * Entities assigned to a {@link RenderLayer} are only drawn when their layer is dirty, the layer is drawn instead.
+ */
 public abstract class World {
 	
 	public Window window;
 	
 	ArrayList<Entity> entities;
 	
+	LongIntMap entityIndices;
+	
+	HashMap<Class<? extends Entity>, ArrayList<Entity>> entityTypes;
+	
 	Camera camera;
 	
+	SpatialGrid spatialGrid;
+	
+	EntityStore entityStore;
+	
+	ForkJoinPool updatePool;
+	
+	int minChunkSize;
+	
+	static final Comparator<Entity> DRAW_ORDER = (first, second) -> Integer.compare(first.worldIndex, second.worldIndex);
+	
+	ArrayList<Entity> visibleEntities;
+	
+	boolean culling;
+	
+	double cullMargin, viewMinX, viewMinY, viewMaxX, viewMaxY;
+	
+	int visibleCount, totalCount;
+	
+	ArrayList<LayerEntry> layers;
+	
+	HashMap<RenderLayer, LayerEntry> layerEntries;
+	
+	static final int ADD = 0, DELETE = 1, DELETE_ID = 2, DELETE_TYPE = 3;
+	
+	/**
+	 * Where a layer is drawn: below or above the entities in world coordinates, or after the camera in window coordinates.
+	 */
+	public static final int BACKGROUND_LAYER = 0, FOREGROUND_LAYER = 1, SCREEN_LAYER = 2;
+	
+	Command[] commands;
+	
+	int commandCount, deferDepth;
+	
+	double alpha = 1;
+	
+	// the simulation thread writes the back snapshot and swaps it with the ready one, the render thread draws the front one
+	RenderSnapshot frontSnapshot, readySnapshot, backSnapshot, drawnSnapshot;
+	
+	boolean snapshotReady;
+	
+	long tick;
+	
 	public World(Window window) {
 		this.window = window;
 		
 		this.entities = new ArrayList<Entity>();
+		this.entityIndices = new LongIntMap();
+		this.entityTypes = new HashMap<>();
+		this.commands = new Command[16];
+		this.visibleEntities = new ArrayList<>();
+		this.layers = new ArrayList<>();
+		this.layerEntries = new HashMap<>();
 		
 		this.camera = new Camera(window, 0, 0);
 	}
@@ -25,16 +98,482 @@ public abstract class World {
 	public abstract void update();
 	public abstract void draw();
 	
+	/**
+	 * Called by the window with the interpolation alpha between the last two updates, see {@link Window#setTickRate(int)}.
+	 * Entities are drawn between their previous location and their location with the alpha.
+	 */
+	public void draw(double alpha) {
+		this.alpha = alpha;
+		draw();
+	}
+	
+	/**
+	 * Remembers the location of every entity as its previous location, called by the window before every update.
+	 */
+	public void storePreviousLocations() {
+		for (int i = 0; i < this.entities.size(); i++) {
+			Entity entity = this.entities.get(i);
+			entity.previousLocation.set(entity.location);
+		}
+	}
+	
 	public void updateEntities() {
-		this.entities.forEach(Entity::update);
+		beginDeferring();
+		if (this.updatePool != null) {
+			updateParallel();
+		} else {
+			this.entities.forEach(Entity::update);
+		}
+		endDeferring();
+		if (this.entityStore != null) {
+			this.entityStore.update();
+		}
+		updateSpatialGrid();
+	}
+	
+	/**
+	 * Updates the {@link ParallelEntity} entities on a pool of worker threads,
+	 * afterwards all other entities are updated in order on the calling thread.
+	 * Parallel entities can query the world, but must not call {@link #updateSpatialGrid(Entity)} meanwhile.
+	 */
+	public void enableParallelUpdate(int threads) {
+		enableParallelUpdate(threads, 256);
+	}
+	
+	public void enableParallelUpdate(int threads, int minChunkSize) {
+		disableParallelUpdate();
+		this.updatePool = new ForkJoinPool(Math.max(1, threads));
+		this.minChunkSize = Math.max(1, minChunkSize);
+	}
+	
+	public void disableParallelUpdate() {
+		if (this.updatePool != null) {
+			this.updatePool.shutdown();
+			this.updatePool = null;
+		}
+	}
+	
+	public boolean isParallelUpdate() {
+		return updatePool != null;
+	}
+	
+	private void updateParallel() {
+		int size = this.entities.size();
+		int chunkSize = Math.max(this.minChunkSize, size / (this.updatePool.getParallelism() * 4));
+		this.updatePool.invoke(new UpdateTask(0, size, chunkSize));
+		
+		for (int i = 0; i < size; i++) {
+			Entity entity = this.entities.get(i);
+			if (!(entity instanceof ParallelEntity)) {
+				entity.update();
+			}
+		}
+	}
+	
+	/**
+	 * Queues adding and removing entities until the matching {@link #endDeferring()}, calls can be nested.
+	 * The window defers while the world updates and draws.
+	 */
+	public void beginDeferring() {
+		this.deferDepth++;
+	}
+	
+	/**
+	 * Applies the queued changes in the order they were made, once the outermost deferring ends.
+	 */
+	public void endDeferring() {
+		if (this.deferDepth > 0 && --this.deferDepth == 0) {
+			applyCommands();
+		}
+	}
+	
+	public boolean isDeferring() {
+		return deferDepth > 0;
+	}
+	
+	private void applyCommands() {
+		for (int i = 0; i < this.commandCount; i++) {
+			Command command = this.commands[i];
+			switch (command.action) {
+			case ADD:
+				addEntity(command.entity);
+				break;
+			case DELETE:
+				delEntity(command.entity);
+				break;
+			case DELETE_ID:
+				delEntity(command.id);
+				break;
+			case DELETE_TYPE:
+				delEntity(command.type);
+				break;
+			}
+			command.entity = null;
+			command.type = null;
+		}
+		this.commandCount = 0;
+	}
+	
+	private synchronized Command queue(int action) {
+		if (this.commandCount == this.commands.length) {
+			this.commands = Arrays.copyOf(this.commands, this.commandCount * 2);
+		}
+		Command command = this.commands[this.commandCount];
+		if (command == null) {
+			command = this.commands[this.commandCount] = new Command();
+		}
+		this.commandCount++;
+		command.action = action;
+		return command;
+	}
+	
+	/**
+	 * Indexes all entities in a uniform grid, which speeds up the query methods.
+	 * The grid follows the entities after every update, {@link #updateSpatialGrid(Entity)} refreshes an entity in between.
+	 */
+	public void enableSpatialGrid(double cellSize) {
+		disableSpatialGrid();
+		this.spatialGrid = new SpatialGrid(cellSize);
+		this.entities.forEach(this.spatialGrid::add);
+	}
+	
+	public void disableSpatialGrid() {
+		if (this.spatialGrid != null) {
+			this.spatialGrid.clear();
+			this.spatialGrid = null;
+		}
+	}
+	
+	public void updateSpatialGrid() {
+		if (this.spatialGrid != null) {
+			for (int i = 0; i < this.entities.size(); i++) {
+				this.spatialGrid.update(this.entities.get(i));
+			}
+		}
+	}
+	
+	public void updateSpatialGrid(Entity entity) {
+		if (this.spatialGrid != null) {
+			this.spatialGrid.update(entity);
+		}
+	}
+	
+	public List<Entity> queryRect(double x, double y, double width, double height, List<Entity> result) {
+		if (this.spatialGrid != null) {
+			return this.spatialGrid.queryRect(x, y, width, height, result);
+		}
+		for (Entity entity : this.entities) {
+			if (entity.location.x >= x && entity.location.x <= x + width && entity.location.y >= y && entity.location.y <= y + height) {
+				result.add(entity);
+			}
+		}
+		return result;
+	}
+	
+	public List<Entity> queryRadius(double x, double y, double radius, List<Entity> result) {
+		if (this.spatialGrid != null) {
+			return this.spatialGrid.queryRadius(x, y, radius, result);
+		}
+		for (Entity entity : this.entities) {
+			if (Maths.dist(x, y, entity.location.x, entity.location.y) <= radius) {
+				result.add(entity);
+			}
+		}
+		return result;
+	}
+	
+	public Entity nearest(double x, double y, double maxRadius, Entity exclude) {
+		if (this.spatialGrid != null) {
+			return this.spatialGrid.nearest(x, y, maxRadius, exclude);
+		}
+		Entity nearest = null;
+		double nearestDistance = maxRadius;
+		for (Entity entity : this.entities) {
+			double distance = Maths.dist(x, y, entity.location.x, entity.location.y);
+			if (entity != exclude && distance <= nearestDistance) {
+				nearest = entity;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
+	}
+	
+	public Entity nearest(double x, double y, double maxRadius) {
+		return nearest(x, y, maxRadius, null);
+	}
+	
+	/**
+	 * Skips drawing entities outside of the view of the camera. Entities with bounds are tested by their bounds,
+	 * all others by their location extended by the margin. With a spatial grid the grid is queried,
+	 * then the margin has to cover the largest distance an entity draws away from its location.
+	 */
+	public void enableCulling(double margin) {
+		this.culling = true;
+		this.cullMargin = Math.max(0, margin);
+	}
+	
+	public void disableCulling() {
+		this.culling = false;
+	}
+	
+	public boolean isCulling() {
+		return culling;
+	}
+	
+	private boolean isVisible(Entity entity, double x, double y) {
+		return isVisible(x, y, entity.getBoundsX(), entity.getBoundsY(), entity.getBoundsWidth(), entity.getBoundsHeight());
+	}
+	
+	private boolean isVisible(double x, double y, double boundsX, double boundsY, double boundsWidth, double boundsHeight) {
+		if (boundsWidth >= 0 && boundsHeight >= 0) {
+			x += boundsX;
+			y += boundsY;
+			return x + boundsWidth >= this.viewMinX && y + boundsHeight >= this.viewMinY
+					&& x <= this.viewMaxX && y <= this.viewMaxY;
+		}
+		return x >= this.viewMinX - this.cullMargin && y >= this.viewMinY - this.cullMargin
+				&& x <= this.viewMaxX + this.cullMargin && y <= this.viewMaxY + this.cullMargin;
 	}
 	
 	public void drawEntities() {
-		this.entities.forEach(Entity::draw);
+		Camera camera = getDrawCamera();
+		this.viewMinX = camera.getViewX();
+		this.viewMinY = camera.getViewY();
+		this.viewMaxX = this.viewMinX + camera.getViewWidth();
+		this.viewMaxY = this.viewMinY + camera.getViewHeight();
+		this.visibleCount = 0;
+		
+		camera.begin();
+		if (this.drawnSnapshot != null) {
+			// the simulation thread owns the spatial grid, so the snapshot is culled linearly
+			RenderSnapshot snapshot = this.drawnSnapshot;
+			drawLayers(BACKGROUND_LAYER);
+			for (int i = 0; i < snapshot.size; i++) {
+				if (snapshot.entityLayers[i] != null) {
+					continue;
+				}
+				double x = snapshot.previousX[i] + (snapshot.x[i] - snapshot.previousX[i]) * this.alpha;
+				double y = snapshot.previousY[i] + (snapshot.y[i] - snapshot.previousY[i]) * this.alpha;
+				if (!this.culling || isVisible(x, y, snapshot.boundsX[i], snapshot.boundsY[i],
+						snapshot.boundsWidth[i], snapshot.boundsHeight[i])) {
+					snapshot.entities[i].draw(x, y);
+					this.visibleCount++;
+				}
+			}
+			this.totalCount = snapshot.size;
+			drawLayers(FOREGROUND_LAYER);
+		} else {
+			beginDeferring();
+			drawLayers(BACKGROUND_LAYER);
+			this.totalCount = this.entities.size();
+			if (!this.culling) {
+				for (int i = 0; i < this.entities.size(); i++) {
+					Entity entity = this.entities.get(i);
+					if (entity.renderLayer == null) {
+						drawInterpolated(entity);
+						this.visibleCount++;
+					}
+				}
+			} else if (this.spatialGrid != null) {
+				double margin = this.cullMargin;
+				this.spatialGrid.queryRect(this.viewMinX - margin, this.viewMinY - margin, this.viewMaxX - this.viewMinX + margin * 2,
+						this.viewMaxY - this.viewMinY + margin * 2, this.visibleEntities);
+				// the grid returns the entities by cell, the draw order is the order of the entity list
+				this.visibleEntities.sort(DRAW_ORDER);
+				for (int i = 0; i < this.visibleEntities.size(); i++) {
+					Entity entity = this.visibleEntities.get(i);
+					if (entity.renderLayer == null && isVisible(entity, entity.getInterpolatedX(this.alpha), entity.getInterpolatedY(this.alpha))) {
+						drawInterpolated(entity);
+						this.visibleCount++;
+					}
+				}
+				this.visibleEntities.clear();
+			} else {
+				for (int i = 0; i < this.entities.size(); i++) {
+					Entity entity = this.entities.get(i);
+					if (entity.renderLayer == null && isVisible(entity, entity.getInterpolatedX(this.alpha), entity.getInterpolatedY(this.alpha))) {
+						drawInterpolated(entity);
+						this.visibleCount++;
+					}
+				}
+			}
+			drawLayers(FOREGROUND_LAYER);
+			endDeferring();
+		}
+		// the live store belongs to the simulation thread while a snapshot is drawn
+		if (this.drawnSnapshot != null) {
+			if (this.drawnSnapshot.store != null) {
+				this.drawnSnapshot.store.draw();
+			}
+		} else if (this.entityStore != null) {
+			this.entityStore.draw();
+		}
+		camera.end();
+		
+		beginDeferring();
+		drawLayers(SCREEN_LAYER);
+		endDeferring();
+	}
+	
+	private void drawInterpolated(Entity entity) {
+		entity.draw(entity.getInterpolatedX(this.alpha), entity.getInterpolatedY(this.alpha));
+	}
+	
+	/**
+	 * Draws the layer every frame, background layers below the entities and the others above them.
+	 * The layer is drawn as is, its content can be drawn through {@link RenderLayer#redraw(Runnable)}
+	 * or by assigning entities with {@link #setLayer(Entity, RenderLayer)}.
+	 */
+	public void addLayer(RenderLayer layer, boolean background) {
+		addLayer(layer, background ? BACKGROUND_LAYER : FOREGROUND_LAYER);
+	}
+	
+	/**
+	 * Draws the layer every frame at the given placement. Screen layers are drawn after the camera,
+	 * so gui panels cached in a layer stay in window coordinates like the rest of the gui.
+	 * The locations of the entities assigned to a screen layer are window coordinates as well.
+	 */
+	public void addLayer(RenderLayer layer, int placement) {
+		LayerEntry entry = this.layerEntries.get(layer);
+		if (entry == null) {
+			entry = new LayerEntry(layer);
+			this.layerEntries.put(layer, entry);
+			this.layers.add(entry);
+		}
+		entry.placement = placement;
+	}
+	
+	/**
+	 * Removes the layer, its entities are drawn directly again.
+	 */
+	public void removeLayer(RenderLayer layer) {
+		LayerEntry entry = this.layerEntries.remove(layer);
+		if (entry == null) {
+			return;
+		}
+		this.layers.remove(entry);
+		for (Entity entity : entry.entities) {
+			entity.renderLayer = null;
+		}
+		entry.entities.clear();
+	}
+	
+	/**
+	 * Draws the entity into the layer instead of the screen, null draws it directly again.
+	 * The layer is added as background layer when it is not in the world yet. Moving or changing
+	 * the entity does not redraw the layer, {@link RenderLayer#markDirty()} has to be called then.
+	 */
+	public void setLayer(Entity entity, RenderLayer layer) {
+		if (entity.renderLayer == layer) {
+			return;
+		}
+		if (entity.worldIndex != -1) {
+			detachLayer(entity);
+		}
+		entity.renderLayer = layer;
+		if (entity.worldIndex != -1) {
+			attachLayer(entity);
+		}
+	}
+	
+	private void attachLayer(Entity entity) {
+		if (entity.renderLayer == null) {
+			return;
+		}
+		if (!this.layerEntries.containsKey(entity.renderLayer)) {
+			addLayer(entity.renderLayer, BACKGROUND_LAYER);
+		}
+		this.layerEntries.get(entity.renderLayer).entities.add(entity);
+		entity.renderLayer.markDirty();
+	}
+	
+	private void detachLayer(Entity entity) {
+		if (entity.renderLayer == null) {
+			return;
+		}
+		LayerEntry entry = this.layerEntries.get(entity.renderLayer);
+		if (entry != null && entry.entities.remove(entity)) {
+			entity.renderLayer.markDirty();
+		}
+	}
+	
+	private void drawLayers(int placement) {
+		if (this.drawnSnapshot != null) {
+			drawSnapshotLayers(this.drawnSnapshot, placement);
+			return;
+		}
+		for (int i = 0; i < this.layers.size(); i++) {
+			LayerEntry entry = this.layers.get(i);
+			if (entry.placement != placement) {
+				continue;
+			}
+			RenderLayer layer = entry.layer;
+			// a layer whose last entity left is redrawn as well, which clears it
+			if (layer.isDirty()) {
+				layer.begin();
+				for (int j = 0; j < entry.entities.size(); j++) {
+					entry.entities.get(j).draw();
+				}
+				layer.end();
+			}
+			layer.draw();
+		}
+	}
+	
+	/**
+	 * Draws the layers of the snapshot, the live layer entries belong to the simulation thread.
+	 * A layer is redrawn when it changed since it was drawn, its entities are drawn in the order of the entity list.
+	 */
+	private void drawSnapshotLayers(RenderSnapshot snapshot, int placement) {
+		for (int i = 0; i < snapshot.layerCount; i++) {
+			if (snapshot.layerPlacements[i] != placement) {
+				continue;
+			}
+			RenderLayer layer = snapshot.layers[i];
+			if (layer.getDrawnVersion() != snapshot.layerVersions[i]) {
+				layer.begin(snapshot.layerVersions[i]);
+				for (int j = 0; j < snapshot.size; j++) {
+					if (snapshot.entityLayers[j] == layer) {
+						snapshot.entities[j].draw(snapshot.x[j], snapshot.y[j]);
+					}
+				}
+				layer.end();
+			}
+			layer.draw();
+		}
+	}
+	
+	public ArrayList<RenderLayer> getLayers() {
+		ArrayList<RenderLayer> result = new ArrayList<>();
+		for (LayerEntry entry : this.layers) {
+			result.add(entry.layer);
+		}
+		return result;
 	}
 	
 	public void addEntity(Entity entity) {
+		if (this.deferDepth > 0) {
+			queue(ADD).entity = entity;
+			return;
+		}
+		// an entity can only be in one slot, otherwise removing it leaves the other one behind
+		if (entity.worldIndex != -1) {
+			return;
+		}
+		// the location may have been set after the entity was created
+		entity.resetInterpolation();
+		entity.worldIndex = this.entities.size();
 		this.entities.add(entity);
+		this.entityIndices.put(entity.entityId, entity.worldIndex);
+		
+		ArrayList<Entity> typeEntities = this.entityTypes.computeIfAbsent(entity.getClass(), type -> new ArrayList<>());
+		entity.typeIndex = typeEntities.size();
+		typeEntities.add(entity);
+		
+		if (this.spatialGrid != null) {
+			this.spatialGrid.add(entity);
+		}
+		attachLayer(entity);
 	}
 	
 	public void addEntities(Entity...entities) {
@@ -44,29 +583,240 @@ public abstract class World {
 	}
 	
 	public void delEntity(Class <? extends Entity> clazz) {
-		this.entities.removeIf(entity -> entity.getClass().equals(clazz));
+		if (this.deferDepth > 0) {
+			queue(DELETE_TYPE).type = clazz;
+			return;
+		}
+		ArrayList<Entity> typeEntities = this.entityTypes.get(clazz);
+		if (typeEntities == null) {
+			return;
+		}
+		while (!typeEntities.isEmpty()) {
+			delEntity(typeEntities.get(typeEntities.size() - 1));
+		}
 	}
 	
 	public void delEntity(long id) {
-		this.entities.removeIf(entity -> entity.entityId == id);
+		if (this.deferDepth > 0) {
+			queue(DELETE_ID).id = id;
+			return;
+		}
+		int index = this.entityIndices.get(id);
+		if (index != -1) {
+			delEntity(this.entities.get(index));
+		}
 	}
 	
-	public Entity getEntityById(long entityId) {
-		Entity entity = null;
-		for (Entity e : this.entities) {
-			if (e.entityId == entityId) {
-				entity = e;
-			}
+	/**
+	 * Removes the entity, it keeps its id so it can be added again.
+	 * Entities which are removed for good should release their generated id through {@link Entity#destroy()}.
+	 */
+	public void delEntity(Entity entity) {
+		if (this.deferDepth > 0) {
+			queue(DELETE).entity = entity;
+			return;
+		}
+		int index = entity.worldIndex;
+		if (index < 0 || index >= this.entities.size() || this.entities.get(index) != entity) {
+			return;
+		}
+		
+		int last = this.entities.size() - 1;
+		Entity moved = this.entities.get(last);
+		this.entities.set(index, moved);
+		this.entities.remove(last);
+		moved.worldIndex = index;
+		
+		if (this.entityIndices.get(entity.entityId) == index) {
+			this.entityIndices.remove(entity.entityId);
+		}
+		if (moved != entity && this.entityIndices.get(moved.entityId) == last) {
+			this.entityIndices.put(moved.entityId, index);
+		}
+		
+		ArrayList<Entity> typeEntities = this.entityTypes.get(entity.getClass());
+		Entity movedType = typeEntities.get(typeEntities.size() - 1);
+		typeEntities.set(entity.typeIndex, movedType);
+		typeEntities.remove(typeEntities.size() - 1);
+		movedType.typeIndex = entity.typeIndex;
+		
+		entity.worldIndex = -1;
+		entity.typeIndex = -1;
+		detachLayer(entity);
+		
+		if (this.spatialGrid != null) {
+			this.spatialGrid.remove(entity);
 		}
-		return entity;
 	}
 	
+	public Entity getEntityById(long entityId) {
+		int index = this.entityIndices.get(entityId);
+		return index == -1 ? null : this.entities.get(index);
+	}
+	
+	/**
+	 * Entities have to be added and removed through the world, otherwise the indices get out of sync.
+	 */
 	public ArrayList<Entity> getEntities() {
 		return entities;
 	}
 	
+	/**
+	 * Captures the entities after an update, called by the simulation thread of the window with the length of an update.
+	 */
+	public void publishSnapshot(long tickNanos) {
+		if (this.backSnapshot == null) {
+			this.backSnapshot = new RenderSnapshot();
+		}
+		this.backSnapshot.capture(this.entities, this.layers, this.entityStore, this.camera, ++this.tick, tickNanos);
+		synchronized (this) {
+			RenderSnapshot ready = this.readySnapshot;
+			this.readySnapshot = this.backSnapshot;
+			this.backSnapshot = ready;
+			this.snapshotReady = true;
+		}
+	}
+	
+	/**
+	 * Draws the latest published snapshot, entities are drawn through {@link Entity#draw(double, double)}.
+	 * Draws nothing until the first snapshot was published. The simulation keeps running meanwhile,
+	 * so drawing must not add or remove entities, and entities must not read state the simulation writes,
+	 * see {@link Entity#draw(double, double)}. The entity store is drawn from its copy in the snapshot
+	 * and the camera from its copy, see {@link #getDrawCamera()}.
+	 * The entities are drawn between their locations of the last two snapshots, by the time since the last one.
+	 */
+	public void drawSnapshot() {
+		synchronized (this) {
+			if (this.snapshotReady) {
+				RenderSnapshot front = this.frontSnapshot;
+				this.frontSnapshot = this.readySnapshot;
+				this.readySnapshot = front;
+				this.snapshotReady = false;
+			}
+		}
+		if (this.frontSnapshot == null) {
+			return;
+		}
+		this.drawnSnapshot = this.frontSnapshot;
+		draw(this.drawnSnapshot.getAlpha());
+		this.drawnSnapshot = null;
+	}
+	
+	public RenderSnapshot getSnapshot() {
+		return frontSnapshot;
+	}
+	
+	/**
+	 * Returns how far the current frame is between the last update and the next one, from 0 to 1.
+	 */
+	public double getAlpha() {
+		return alpha;
+	}
+	
+	/**
+	 * Number of entities drawn by the last {@link #drawEntities()}.
+	 */
+	public int getVisibleCount() {
+		return visibleCount;
+	}
+	
+	/**
+	 * Number of entities which could have been drawn by the last {@link #drawEntities()}.
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+	
 	public Camera getCamera() {
 		return camera;
 	}
+	
+	/**
+	 * Returns the camera to draw with, the copy of the snapshot while a snapshot is drawn and the camera otherwise.
+	 * Drawing code like {@link TileMap#draw(Camera)} should use it, the camera itself is moved by the simulation thread.
+	 */
+	public Camera getDrawCamera() {
+		return this.drawnSnapshot != null ? this.drawnSnapshot.camera : this.camera;
+	}
+	
+	public SpatialGrid getSpatialGrid() {
+		return spatialGrid;
+	}
+	
+	/**
+	 * Returns the component store of the world, which is created on first use and runs its systems
+	 * after the entities are updated and drawn.
+	 */
+	public EntityStore getEntityStore() {
+		if (this.entityStore == null) {
+			this.entityStore = new EntityStore();
+		}
+		return entityStore;
+	}
+	
+	/**
+	 * Updates the parallel entities of a range of the entity list, splitting it until it is small enough.
+	 */
+	class UpdateTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		int start, end, chunkSize;
+		
+		UpdateTask(int start, int end, int chunkSize) {
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+		
+		@Override
+		protected void compute() {
+			if (this.end - this.start > this.chunkSize) {
+				int middle = (this.start + this.end) >>> 1;
+				invokeAll(new UpdateTask(this.start, middle, this.chunkSize), new UpdateTask(middle, this.end, this.chunkSize));
+				return;
+			}
+			for (int i = this.start; i < this.end; i++) {
+				Entity entity = entities.get(i);
+				if (entity instanceof ParallelEntity) {
+					entity.update();
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * Layer and the entities drawn into it, in the order they were assigned.
+	 */
+	static class LayerEntry {
+		
+		RenderLayer layer;
+		
+		ArrayList<Entity> entities;
+		
+		int placement;
+		
+		LayerEntry(RenderLayer layer) {
+			this.layer = layer;
+			this.entities = new ArrayList<>();
+		}
+		
+	}
+	
+	/**
+	 * Queued change, the instances are reused so deferring doesn't allocate.
+	 */
+	static class Command {
+		
+		int action;
+		
+		Entity entity;
+		
+		long id;
+		
+		Class<? extends Entity> type;
+		
+	}
 
 }
@@ -7,7 +7,7 @@ import de.iotacb.cloud.utilities.math.Randoms;
 public class Colors {
 	
 	public static Color random() {
-		return new Color(Randoms.randomInteger(0, 255), Randoms.randomInteger(0, 255), Randoms.randomInteger(0, 255));
+		return new Color(Randoms.getRandom().nextInt(0x1000000));
 	}
 	
 	public static Color setAlpha(Color color, int alpha) {
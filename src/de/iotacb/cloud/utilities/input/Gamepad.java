@@ -0,0 +1,146 @@
+package de.iotacb.cloud.utilities.input;
+
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_LEFT_TRIGGER;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_LEFT_X;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_LEFT_Y;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_RIGHT_TRIGGER;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_RIGHT_X;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_AXIS_RIGHT_Y;
+import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_BUTTON_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+
+import org.lwjgl.glfw.GLFWGamepadState;
+
+/**
+ * State of one gamepad, polled from the standard glfw gamepad mapping on the main thread and copied once per update.
+ * Button codes above {@link #LAST_BUTTON} are the triggers, {@link #LEFT_TRIGGER_BUTTON} and {@link #RIGHT_TRIGGER_BUTTON}.
+ */
+public class Gamepad {
+
+    public static final int LAST_BUTTON = GLFW_GAMEPAD_BUTTON_LAST, LEFT_TRIGGER_BUTTON = LAST_BUTTON + 1, RIGHT_TRIGGER_BUTTON = LAST_BUTTON + 2;
+
+    int joystickId;
+
+    boolean connected;
+
+    float[] axes;
+
+    int buttons, previousButtons;
+
+    // buttons held at any poll since the last copy, so short presses between two updates are kept
+    int polledButtons;
+
+    Gamepad(int joystickId) {
+        this.joystickId = joystickId;
+        this.axes = new float[GLFW_GAMEPAD_AXIS_LAST + 1];
+    }
+
+    void update(GLFWGamepadState state) {
+        this.previousButtons = this.buttons;
+        this.buttons = 0;
+        for (int i = 0; i <= GLFW_GAMEPAD_BUTTON_LAST; i++) {
+            if (state.buttons(i) == GLFW_PRESS) {
+                this.buttons |= 1 << i;
+            }
+        }
+        for (int i = 0; i < this.axes.length; i++) {
+            this.axes[i] = state.axes(i);
+        }
+        // the triggers count as buttons when they are pulled completely
+        if (this.axes[GLFW_GAMEPAD_AXIS_LEFT_TRIGGER] == 1) {
+            this.buttons |= 1 << LEFT_TRIGGER_BUTTON;
+        }
+        if (this.axes[GLFW_GAMEPAD_AXIS_RIGHT_TRIGGER] == 1) {
+            this.buttons |= 1 << RIGHT_TRIGGER_BUTTON;
+        }
+        this.polledButtons |= this.buttons;
+        this.connected = true;
+    }
+
+    /**
+     * Takes over the state the polled gamepad collected since the last call.
+     */
+    void latch(Gamepad polled) {
+        if (!polled.connected) {
+            disconnect();
+            return;
+        }
+        this.previousButtons = this.buttons;
+        this.buttons = polled.polledButtons;
+        polled.polledButtons = polled.buttons;
+        System.arraycopy(polled.axes, 0, this.axes, 0, this.axes.length);
+        this.connected = true;
+    }
+
+    void disconnect() {
+        if (this.connected) {
+            this.connected = false;
+            this.buttons = 0;
+            this.previousButtons = 0;
+            this.polledButtons = 0;
+            for (int i = 0; i < this.axes.length; i++) {
+                this.axes[i] = 0;
+            }
+        }
+    }
+
+    public float getAxis(int axis) {
+        return axes[axis];
+    }
+
+    public float getLeftJoystickX() {
+        return axes[GLFW_GAMEPAD_AXIS_LEFT_X];
+    }
+
+    public float getLeftJoystickY() {
+        return axes[GLFW_GAMEPAD_AXIS_LEFT_Y];
+    }
+
+    public float getRightJoystickX() {
+        return axes[GLFW_GAMEPAD_AXIS_RIGHT_X];
+    }
+
+    public float getRightJoystickY() {
+        return axes[GLFW_GAMEPAD_AXIS_RIGHT_Y];
+    }
+
+    public float getLeftTrigger() {
+        return axes[GLFW_GAMEPAD_AXIS_LEFT_TRIGGER];
+    }
+
+    public float getRightTrigger() {
+        return axes[GLFW_GAMEPAD_AXIS_RIGHT_TRIGGER];
+    }
+
+    public boolean isButtonDown(int buttonCode) {
+        return buttonCode >= 0 && buttonCode <= RIGHT_TRIGGER_BUTTON && (buttons & 1 << buttonCode) != 0;
+    }
+
+    /**
+     * Returns true if the button went down with the last update.
+     */
+    public boolean isButtonPressed(int buttonCode) {
+        return isButtonDown(buttonCode) && (previousButtons & 1 << buttonCode) == 0;
+    }
+
+    /**
+     * Returns true if the button went up with the last update.
+     */
+    public boolean isButtonReleased(int buttonCode) {
+        return buttonCode >= 0 && buttonCode <= RIGHT_TRIGGER_BUTTON && (buttons & 1 << buttonCode) == 0 && (previousButtons & 1 << buttonCode) != 0;
+    }
+
+    public boolean noButtonPressed() {
+        return buttons == 0;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public int getJoystickId() {
+        return joystickId;
+    }
+
+}
@@ -1,27 +1,78 @@
 package de.iotacb.cloud.utilities.input;
 
 import static org.lwjgl.glfw.GLFW.GLFW_GAMEPAD_BUTTON_LAST;
-import static org.lwjgl.glfw.GLFW.GLFW_JOYSTICK_1;
+import static org.lwjgl.glfw.GLFW.GLFW_JOYSTICK_LAST;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
-import static org.lwjgl.glfw.GLFW.glfwGetJoystickAxes;
-import static org.lwjgl.glfw.GLFW.glfwGetJoystickButtons;
-import static org.lwjgl.glfw.GLFW.glfwGetJoystickName;
-import static org.lwjgl.glfw.GLFW.glfwGetKey;
-import static org.lwjgl.glfw.GLFW.glfwGetMouseButton;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
+import static org.lwjgl.glfw.GLFW.glfwGetGamepadState;
+import static org.lwjgl.glfw.GLFW.glfwJoystickIsGamepad;
+import static org.lwjgl.glfw.GLFW.glfwSetCharCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetKeyCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetMouseButtonCallback;
 
-import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.glfw.GLFWCharCallback;
+import org.lwjgl.glfw.GLFWGamepadState;
+import org.lwjgl.glfw.GLFWKeyCallback;
+import org.lwjgl.glfw.GLFWMouseButtonCallback;
 
 import de.iotacb.cloud.core.window.Window;
 
+/**
+ * Keyboard and mouse state is kept in bitsets which are written by the glfw callbacks while events are polled
+ * on the main thread. Every update takes a copy of them under a lock, so the world can be updated on another thread
+ * and reads the same input during the whole update.
+ * Besides the held keys, the keys pressed and released since the last update are kept,
+ * so a key which was pressed and released between two updates is still reported.
+ * <p>
+ * Gamepads are polled by the window on the main thread, as glfw requires, and copied once per update into
+ * {@link Gamepad} snapshots. The gamepad getters of this class read the first connected gamepad.
+ */
 public class Input {
 
+    static final int KEY_WORDS = (GLFW_KEY_LAST >> 6) + 1;
+
     public boolean[] buttons;
+
+    /**
+     * Copies of the held keys and mouse buttons of the current update, kept for existing callers.
+     * Writing them has no effect.
+     * @deprecated use {@link #getKey(int)} and {@link #getMouseButton(int)}
+     */
+    @Deprecated
+    public boolean[] keys, mouseButtons;
     public boolean hasGamepad, usingGamepad;
     
     boolean isWindows;
     
-    public boolean[] keys, mouseButtons;
+    long[] keyStates, pressedKeys, releasedKeys;
+
+    long mouseStates, pressedMouseButtons, releasedMouseButtons;
+
+    String typedChars;
+
+    // written by the callbacks, guarded by the poll lock
+    long[] polledKeyStates, polledPressedKeys, polledReleasedKeys;
+
+    long polledMouseStates, polledPressedMouseButtons, polledReleasedMouseButtons;
+
+    StringBuilder polledChars;
+
+    int polledLastKey;
+
+    boolean polledPress;
+
+    Gamepad[] gamepads, polledGamepads;
+
+    // guards the polled state, which is written on the main thread and copied by the update thread
+    final Object pollLock = new Object();
+
+    Gamepad primaryGamepad;
+
+    GLFWGamepadState gamepadState;
 
     public int lastKey;
     
@@ -29,33 +80,100 @@ public class Input {
 
     long windowId;
 
+    GLFWKeyCallback keyCallback;
+    GLFWMouseButtonCallback mouseButtonCallback;
+    GLFWCharCallback charCallback;
+
     public Input(long windowId, Window window, boolean isWindows) {
         this.windowId = windowId;
         this.window = window;
         this.isWindows = isWindows;
-        this.keys = new boolean[GLFW_KEY_LAST];
-        this.mouseButtons = new boolean[2];
-        this.hasGamepad = glfwGetJoystickName(GLFW_JOYSTICK_1) != null;
-        this.usingGamepad = hasGamepad;
-        for (int i = 0; i < GLFW_KEY_LAST; i++) {
-            keys[i] = false;
-        }
-        for (int i = 0; i < 2; i++) {
-        	mouseButtons[i] = false;
+        this.keyStates = new long[KEY_WORDS];
+        this.pressedKeys = new long[KEY_WORDS];
+        this.releasedKeys = new long[KEY_WORDS];
+        this.typedChars = "";
+        this.polledKeyStates = new long[KEY_WORDS];
+        this.polledPressedKeys = new long[KEY_WORDS];
+        this.polledReleasedKeys = new long[KEY_WORDS];
+        this.polledChars = new StringBuilder();
+        this.keys = new boolean[GLFW_KEY_LAST + 1];
+        this.mouseButtons = new boolean[GLFW_MOUSE_BUTTON_LAST + 1];
+        this.gamepads = new Gamepad[GLFW_JOYSTICK_LAST + 1];
+        this.polledGamepads = new Gamepad[GLFW_JOYSTICK_LAST + 1];
+        for (int i = 0; i < this.gamepads.length; i++) {
+            this.gamepads[i] = new Gamepad(i);
+            this.polledGamepads[i] = new Gamepad(i);
         }
-        if (hasGamepad) {
-            this.buttons = new boolean[GLFW_GAMEPAD_BUTTON_LAST];
-            for (int i = 0; i < GLFW_GAMEPAD_BUTTON_LAST; i++) {
-                buttons[i] = false;
+        this.gamepadState = GLFWGamepadState.create();
+        this.buttons = new boolean[GLFW_GAMEPAD_BUTTON_LAST];
+        setCallbacks();
+        pollGamepads();
+        latchGamepads();
+        this.usingGamepad = hasGamepad;
+    }
+
+    private void setCallbacks() {
+        glfwSetKeyCallback(windowId, keyCallback = new GLFWKeyCallback() {
+            @Override
+            public void invoke(long windowId, int key, int scancode, int action, int mods) {
+                if (key < 0 || key > GLFW_KEY_LAST) {
+                    return;
+                }
+                long bit = 1L << key;
+                synchronized (pollLock) {
+                    if (action == GLFW_PRESS) {
+                        polledKeyStates[key >> 6] |= bit;
+                        polledPressedKeys[key >> 6] |= bit;
+                        polledLastKey = key;
+                        polledPress = true;
+                    } else if (action == GLFW_RELEASE) {
+                        polledKeyStates[key >> 6] &= ~bit;
+                        polledReleasedKeys[key >> 6] |= bit;
+                    }
+                }
             }
-        }
+        });
+
+        glfwSetMouseButtonCallback(windowId, mouseButtonCallback = new GLFWMouseButtonCallback() {
+            @Override
+            public void invoke(long windowId, int button, int action, int mods) {
+                if (button < 0 || button > GLFW_MOUSE_BUTTON_LAST) {
+                    return;
+                }
+                long bit = 1L << button;
+                synchronized (pollLock) {
+                    if (action == GLFW_PRESS) {
+                        polledMouseStates |= bit;
+                        polledPressedMouseButtons |= bit;
+                        polledPress = true;
+                    } else if (action == GLFW_RELEASE) {
+                        polledMouseStates &= ~bit;
+                        polledReleasedMouseButtons |= bit;
+                    }
+                }
+            }
+        });
+
+        glfwSetCharCallback(windowId, charCallback = new GLFWCharCallback() {
+            @Override
+            public void invoke(long windowId, int codepoint) {
+                synchronized (pollLock) {
+                    polledChars.appendCodePoint(codepoint);
+                }
+            }
+        });
+    }
+
+    public void destroy() {
+        keyCallback.free();
+        mouseButtonCallback.free();
+        charCallback.free();
     }
 
     public float getLeftJoystickX() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(0);
+        float a = primaryGamepad.getLeftJoystickX();
         if (Math.abs(a) > 0.5) usingGamepad = true;
         return a;
     }
@@ -63,8 +181,7 @@ public class Input {
     public float getLeftJoystickY() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(1);
+        float a = primaryGamepad.getLeftJoystickY();
         if (Math.abs(a) > 0.5) usingGamepad = true;
         return a;
     }
@@ -72,16 +189,13 @@ public class Input {
     public float getLeftTrigger() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(4);
-        return a;
+        return primaryGamepad.getLeftTrigger();
     }
     
     public float getRightJoystickX() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(2);
+        float a = primaryGamepad.getRightJoystickX();
         if (Math.abs(a) > 0.5) usingGamepad = true;
         return a;
     }
@@ -89,8 +203,7 @@ public class Input {
     public float getRightJoystickY() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(3);
+        float a = primaryGamepad.getRightJoystickY();
         if (Math.abs(a) > 0.5) usingGamepad = true;
         return a;
     }
@@ -98,51 +211,70 @@ public class Input {
     public float getRightTrigger() {
         if (!hasGamepad)
             return 0;
-        FloatBuffer axes = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-        float a = axes.get(5);
-        return a;
+        return primaryGamepad.getRightTrigger();
     }
 
     public boolean isButtonDown(int buttonCode) {
         if (!hasGamepad)
             return false;
-        boolean r = false;
-        ByteBuffer buttons = glfwGetJoystickButtons(GLFW_JOYSTICK_1);
-        for (int i = 0; i < buttons.capacity(); i++) {
-            if (buttonCode != (15 | 16)) {
-                if (i == buttonCode) {
-                    r = (buttons.get(i) == 1);
-                }
-            } else {
-                if (buttonCode == 15) {
-                    r = isLeftTriggerPressed();
-                }
-                if (buttonCode == 16) {
-                    r = isRightTriggerPressed();
-                }
+        return primaryGamepad.isButtonDown(buttonCode);
+    }
+
+    /**
+     * Returns the gamepad of the glfw joystick id, check {@link Gamepad#isConnected()} before using it.
+     */
+    public Gamepad getGamepad(int joystickId) {
+        return gamepads[joystickId];
+    }
+
+    /**
+     * Returns the first connected gamepad or null.
+     */
+    public Gamepad getPrimaryGamepad() {
+        return primaryGamepad;
+    }
+
+    public int getGamepadCount() {
+        int count = 0;
+        for (Gamepad gamepad : gamepads) {
+            if (gamepad.connected) {
+                count++;
             }
         }
-        return r;
+        return count;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return index >= 0 && index <= GLFW_KEY_LAST && (bits[index >> 6] & 1L << index) != 0;
+    }
+
+    private static boolean isSet(long bits, int index) {
+        return index >= 0 && index <= GLFW_MOUSE_BUTTON_LAST && (bits & 1L << index) != 0;
     }
 
     public boolean getKey(int keyCode) {
-        return glfwGetKey(windowId, keyCode) == 1;
+        return isSet(keyStates, keyCode);
     }
 
+    /**
+     * Returns true if the key was pressed since the last update.
+     */
     public boolean getKeyDown(int keyCode) {
-        boolean isDown = (getKey(keyCode) && !keys[keyCode]);
-        if (hasGamepad) {
-            if (isDown) usingGamepad = false;
-        }
-        return isDown;
+        return isSet(pressedKeys, keyCode);
     }
 
+    /**
+     * Returns true if the key was released since the last update.
+     */
     public boolean getKeyUp(int keyCode) {
-        boolean isUp = (!getKey(keyCode) && keys[keyCode]);
-        if (hasGamepad) {
-            if (isUp) usingGamepad = false;
-        }
-        return isUp;
+        return isSet(releasedKeys, keyCode);
+    }
+
+    /**
+     * Returns the characters typed since the last update, respecting the keyboard layout.
+     */
+    public String getTypedChars() {
+        return typedChars;
     }
 
     public boolean isLeftTriggerPressed() {
@@ -154,27 +286,15 @@ public class Input {
     }
 
     public boolean getMouseButton(int mouseButton) {
-        boolean isDown = glfwGetMouseButton(windowId, mouseButton) == 1;
-        if (hasGamepad) {
-            if (isDown) usingGamepad = false;
-        }
-        return isDown;
+        return isSet(mouseStates, mouseButton);
     }
     
     public boolean getMouseButtonDown(int mouseButton) {
-    	boolean isDown = (getMouseButton(mouseButton) && !mouseButtons[mouseButton]);
-    	if (hasGamepad) {
-    		if (isDown) usingGamepad = false;
-    	}
-    	return isDown;
+    	return isSet(pressedMouseButtons, mouseButton);
     }
     
     public boolean getMouseButtonUp(int mouseButton) {
-    	boolean isUp = (!getMouseButton(mouseButton) && mouseButtons[mouseButton]);
-    	if (hasGamepad) {
-    		if (isUp) usingGamepad = false;
-    	}
-    	return isUp;
+    	return isSet(releasedMouseButtons, mouseButton);
     }
 
     public boolean isRightTriggerPressed() {
@@ -188,52 +308,57 @@ public class Input {
     public boolean noButtonPressed() {
         if (!hasGamepad)
             return true;
-        boolean r = true;
-        for (int i = 0; i < GLFW_GAMEPAD_BUTTON_LAST; i++) {
-            if (buttons[i]) {
-                r = false;
-            }
-        }
-        if (isLeftTriggerPressed() || isRightTriggerPressed()) {
-            r = false;
-        }
-        return r;
+        return primaryGamepad.noButtonPressed();
     }
 
     public boolean noKeyPressed() {
-        boolean r = true;
-        for (int i = 0; i < GLFW_KEY_LAST; i++) {
-            if (keys[i]) {
-                r = false;
-            }
+        return getPressedKeyCount() == 0;
+    }
+
+    public int getPressedKeyCount() {
+        int count = 0;
+        for (int i = 0; i < KEY_WORDS; i++) {
+            count += Long.bitCount(keyStates[i]);
         }
-        return r;
+        return count;
     }
 
+    /**
+     * Takes over the input collected since the last update, called by the window before every update.
+     */
     public void update() {
-        this.hasGamepad = glfwGetJoystickName(GLFW_JOYSTICK_1) != null;
-        if (this.window.getLastMouseLocation().x != this.window.getMouseLocation().x || this.window.getLastMouseLocation().y != this.window.getMouseLocation().y) {
-        	this.usingGamepad = false;
+        boolean pressed;
+        synchronized (pollLock) {
+            System.arraycopy(polledKeyStates, 0, keyStates, 0, KEY_WORDS);
+            System.arraycopy(polledPressedKeys, 0, pressedKeys, 0, KEY_WORDS);
+            System.arraycopy(polledReleasedKeys, 0, releasedKeys, 0, KEY_WORDS);
+            Arrays.fill(polledPressedKeys, 0);
+            Arrays.fill(polledReleasedKeys, 0);
+            mouseStates = polledMouseStates;
+            pressedMouseButtons = polledPressedMouseButtons;
+            releasedMouseButtons = polledReleasedMouseButtons;
+            polledPressedMouseButtons = 0;
+            polledReleasedMouseButtons = 0;
+            typedChars = polledChars.length() == 0 ? "" : polledChars.toString();
+            polledChars.setLength(0);
+            lastKey = polledLastKey;
+            pressed = polledPress;
+            polledPress = false;
         }
-        for (int i = 0; i < GLFW_KEY_LAST; i++) {
-            keys[i] = getKey(i);
-            if (keys[i]) {
-            	lastKey = i;
-                usingGamepad = false;
-            }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = isSet(keyStates, i);
         }
-        for (int i = 0; i < 2; i++) {
-        	mouseButtons[i] = getMouseButton(i);
+        for (int i = 0; i < mouseButtons.length; i++) {
+            mouseButtons[i] = isSet(mouseStates, i);
         }
+
+        if (pressed || this.window.getLastMouseLocation().x != this.window.getMouseLocation().x || this.window.getLastMouseLocation().y != this.window.getMouseLocation().y) {
+        	this.usingGamepad = false;
+        }
+        latchGamepads();
         if (hasGamepad) {
-            if (buttons == null) {
-                this.buttons = new boolean[GLFW_GAMEPAD_BUTTON_LAST];
-                for (int i = 0; i < GLFW_GAMEPAD_BUTTON_LAST; i++) {
-                    buttons[i] = false;
-                }
-            }
             for (int i = 0; i < GLFW_GAMEPAD_BUTTON_LAST; i++) {
-                buttons[i] = isButtonDown(i);
+                buttons[i] = primaryGamepad.isButtonDown(i);
                 if (buttons[i]) {
                     usingGamepad = true;
                 }
@@ -249,4 +374,32 @@ public class Input {
         }
     }
 
+    /**
+     * Reads the gamepads from glfw, which is only allowed on the main thread. Called by the window once per frame.
+     */
+    public void pollGamepads() {
+        synchronized (pollLock) {
+            for (Gamepad gamepad : polledGamepads) {
+                if (glfwJoystickIsGamepad(gamepad.joystickId) && glfwGetGamepadState(gamepad.joystickId, gamepadState)) {
+                    gamepad.update(gamepadState);
+                } else {
+                    gamepad.disconnect();
+                }
+            }
+        }
+    }
+
+    private void latchGamepads() {
+        this.primaryGamepad = null;
+        synchronized (pollLock) {
+            for (int i = 0; i < gamepads.length; i++) {
+                gamepads[i].latch(polledGamepads[i]);
+                if (primaryGamepad == null && gamepads[i].connected) {
+                    primaryGamepad = gamepads[i];
+                }
+            }
+        }
+        this.hasGamepad = primaryGamepad != null;
+    }
+
 }
\ No newline at end of file
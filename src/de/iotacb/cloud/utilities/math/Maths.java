@@ -13,26 +13,95 @@ public class Maths {
 		return (firstValue > secondValue ? firstValue : secondValue);
 	}
 
+	public static float max(float firstValue, float secondValue) {
+		return (firstValue > secondValue ? firstValue : secondValue);
+	}
+
 	public static int max(int firstValue, int secondValue) {
 		return (firstValue > secondValue ? firstValue : secondValue);
 	}
 
+	public static long max(long firstValue, long secondValue) {
+		return (firstValue > secondValue ? firstValue : secondValue);
+	}
+
 	public static double min(double firstValue, double secondValue) {
 		return (firstValue < secondValue ? firstValue : secondValue);
 	}
 
+	public static float min(float firstValue, float secondValue) {
+		return (firstValue < secondValue ? firstValue : secondValue);
+	}
+
 	public static int min(int firstValue, int secondValue) {
 		return (firstValue < secondValue ? firstValue : secondValue);
 	}
 
+	public static long min(long firstValue, long secondValue) {
+		return (firstValue < secondValue ? firstValue : secondValue);
+	}
+
 	public static double clamp(double value, double min, double max) {
 		return (value > max ? max : value < min ? min : value);
 	}
 
+	public static float clamp(float value, float min, float max) {
+		return (value > max ? max : value < min ? min : value);
+	}
+
 	public static int clamp(int value, int min, int max) {
 		return (value > max ? max : value < min ? min : value);
 	}
 
+	public static long clamp(long value, long min, long max) {
+		return (value > max ? max : value < min ? min : value);
+	}
+
+	/*
+	 * Java prefers widening int and long to float over double, so without the int and long overloads below
+	 * whole number arguments would end up in the float variants and lose precision.
+	 */
+
+	public static double direction(int firstX, int firstY, int secondX, int secondY) {
+		return direction((double) firstX, firstY, secondX, secondY);
+	}
+
+	public static double direction(long firstX, long firstY, long secondX, long secondY) {
+		return direction((double) firstX, firstY, secondX, secondY);
+	}
+
+	public static double lengthDirX(int value, int direction) {
+		return lengthDirX((double) value, direction);
+	}
+
+	public static double lengthDirX(long value, long direction) {
+		return lengthDirX((double) value, direction);
+	}
+
+	public static double lengthDirY(int value, int direction) {
+		return lengthDirY((double) value, direction);
+	}
+
+	public static double lengthDirY(long value, long direction) {
+		return lengthDirY((double) value, direction);
+	}
+
+	public static double dist(int firstX, int firstY, int secondX, int secondY) {
+		return dist((double) firstX, firstY, secondX, secondY);
+	}
+
+	public static double dist(long firstX, long firstY, long secondX, long secondY) {
+		return dist((double) firstX, firstY, secondX, secondY);
+	}
+
+	public static double length(int x, int y) {
+		return length((double) x, y);
+	}
+
+	public static double length(long x, long y) {
+		return length((double) x, y);
+	}
+
 	public static double direction(double firstX, double firstY, double secondX, double secondY) {
 		double angle = Math.toDegrees(Math.atan2(secondY - firstY, secondX - firstX)) + 90;
 		if (angle < 0) {
@@ -41,6 +110,14 @@ public class Maths {
 		return angle;
 	}
 
+	public static float direction(float firstX, float firstY, float secondX, float secondY) {
+		return (float) direction((double) firstX, firstY, secondX, secondY);
+	}
+
+	public static float direction(Vec2f firstLocation, Vec2f secondLocation) {
+		return direction(firstLocation.x, firstLocation.y, secondLocation.x, secondLocation.y);
+	}
+
 	public static double direction(Vec firstLocation, Vec secondLocation) {
 		double angle = Math
 				.toDegrees(Math.atan2(secondLocation.y - firstLocation.y, secondLocation.x - firstLocation.x)) + 90;
@@ -52,11 +129,67 @@ public class Maths {
 	
 
 	public static double lengthDirX(double value, double direction) {
-		return Math.cos(Math.toRadians(direction)) * value;
+		return (fastTrig ? cosDeg(direction) : Math.cos(Math.toRadians(direction))) * value;
 	}
 
 	public static double lengthDirY(double value, double direction) {
-		return Math.sin(Math.toRadians(direction)) * value;
+		return (fastTrig ? sinDeg(direction) : Math.sin(Math.toRadians(direction))) * value;
+	}
+
+	public static float lengthDirX(float value, float direction) {
+		return (float) lengthDirX((double) value, direction);
+	}
+
+	public static float lengthDirY(float value, float direction) {
+		return (float) lengthDirY((double) value, direction);
+	}
+
+	/**
+	 * Table driven sine and cosine, used by lengthDirX/Y when fast trigonometry is enabled.
+	 * The table holds 4096 samples per turn and is interpolated linearly,
+	 * the absolute error compared to Math.sin/Math.cos stays below 3e-7.
+	 */
+	static final int SIN_BITS = 12, SIN_COUNT = 1 << SIN_BITS, SIN_MASK = SIN_COUNT - 1;
+	static final double[] SIN_TABLE = new double[SIN_COUNT + 1];
+	static final double DEG_TO_INDEX = SIN_COUNT / 360.0, RAD_TO_INDEX = SIN_COUNT / (Math.PI * 2);
+
+	static {
+		for (int i = 0; i <= SIN_COUNT; i++) {
+			SIN_TABLE[i] = Math.sin(i * Math.PI * 2 / SIN_COUNT);
+		}
+	}
+
+	static boolean fastTrig;
+
+	public static void setFastTrig(boolean fastTrig) {
+		Maths.fastTrig = fastTrig;
+	}
+
+	public static boolean isFastTrig() {
+		return fastTrig;
+	}
+
+	private static double sinIndex(double index) {
+		double floor = Math.floor(index);
+		int i = (int) ((long) floor & SIN_MASK);
+		double a = SIN_TABLE[i];
+		return a + (SIN_TABLE[i + 1] - a) * (index - floor);
+	}
+
+	public static double sin(double radians) {
+		return sinIndex(radians * RAD_TO_INDEX);
+	}
+
+	public static double cos(double radians) {
+		return sinIndex(radians * RAD_TO_INDEX + SIN_COUNT / 4);
+	}
+
+	public static double sinDeg(double degrees) {
+		return sinIndex(degrees * DEG_TO_INDEX);
+	}
+
+	public static double cosDeg(double degrees) {
+		return sinIndex(degrees * DEG_TO_INDEX + SIN_COUNT / 4);
 	}
 
 	public static double dist(double firstX, double firstY, double secondX, double secondY) {
@@ -71,10 +204,28 @@ public class Maths {
 		return Math.sqrt(diffX * diffX + diffY * diffY);
 	}
 
+	public static float dist(float firstX, float firstY, float secondX, float secondY) {
+		float diffX = secondX - firstX;
+		float diffY = secondY - firstY;
+		return (float) Math.sqrt(diffX * diffX + diffY * diffY);
+	}
+
+	public static float dist(Vec2f firstLocation, Vec2f secondLocation) {
+		return dist(firstLocation.x, firstLocation.y, secondLocation.x, secondLocation.y);
+	}
+
 	public static double length(double x, double y) {
 		return Math.sqrt(x * x + y * y);
 	}
 
+	public static float length(float x, float y) {
+		return (float) Math.sqrt(x * x + y * y);
+	}
+
+	public static float length(Vec2f location) {
+		return length(location.x, location.y);
+	}
+
 	public static double length(Vec location) {
 		return length(location.x, location.y);
 	}
@@ -1,13 +1,75 @@
 package de.iotacb.cloud.utilities.math;
 
+import java.util.SplittableRandom;
+
+/**
+ * Random numbers from a generator per thread, so no call allocates or contends with other threads.
+ * {@link #setSeed(long)} makes the numbers repeatable, for example to replay a recording.
+ */
 public class Randoms {
 	
+	static final ThreadLocal<Generator> GENERATORS = ThreadLocal.withInitial(Generator::new);
+	
+	static volatile long seed;
+	
+	static volatile boolean seeded;
+	
+	static volatile int seedGeneration;
+	
+	/**
+	 * Restarts the generators with the seed. Every thread starts the same sequence,
+	 * so the numbers are only repeatable when the same thread asks for them in the same order.
+	 */
+	public static void setSeed(long seed) {
+		Randoms.seed = seed;
+		Randoms.seeded = true;
+		seedGeneration++;
+	}
+	
+	/**
+	 * Switches back to unpredictable generators.
+	 */
+	public static void clearSeed() {
+		Randoms.seeded = false;
+		seedGeneration++;
+	}
+	
+	public static boolean isSeeded() {
+		return seeded;
+	}
+	
+	/**
+	 * Returns the generator of the calling thread, it must not be shared with other threads.
+	 */
+	public static SplittableRandom getRandom() {
+		Generator generator = GENERATORS.get();
+		if (generator.generation != seedGeneration) {
+			generator.reset();
+		}
+		return generator.random;
+	}
+	
 	public static double randomDouble(double minValue, double maxValue) {
-		return minValue + (new java.util.Random().nextDouble() * ((maxValue - minValue) + 1));
+		return minValue + (getRandom().nextDouble() * ((maxValue - minValue) + 1));
 	}
 	
+	/**
+	 * Returns a value from the minimum to the maximum, both included.
+	 * Reversed bounds count down from the minimum like {@link #randomDouble(double, double)} does.
+	 */
 	public static long randomLong(long minValue, long maxValue) {
-		return minValue + (new java.util.Random().nextLong() * ((maxValue - minValue) + 1));
+		if (minValue == maxValue) {
+			return minValue;
+		}
+		SplittableRandom random = getRandom();
+		if (minValue > maxValue) {
+			return minValue + (long) (random.nextDouble() * (((double) maxValue - minValue) + 1));
+		}
+		if (maxValue == Long.MAX_VALUE) {
+			// the exclusive bound would overflow, so the range is shifted down by one
+			return minValue == Long.MIN_VALUE ? random.nextLong() : random.nextLong(minValue - 1, maxValue) + 1;
+		}
+		return random.nextLong(minValue, maxValue + 1);
 	}
 	
 	public static float randomFloat(float minValue, float maxValue) {
@@ -35,7 +97,40 @@ public class Randoms {
 	}
 	
 	public static boolean randomBoolean() {
-		return new java.util.Random().nextBoolean();
+		return getRandom().nextBoolean();
+	}
+	
+	/**
+	 * Fills the array with values of {@link #randomDouble(double, double)}.
+	 */
+	public static double[] fill(double[] out, double minValue, double maxValue) {
+		SplittableRandom random = getRandom();
+		double range = (maxValue - minValue) + 1;
+		for (int i = 0; i < out.length; i++) {
+			out[i] = minValue + random.nextDouble() * range;
+		}
+		return out;
+	}
+	
+	public static float[] fill(float[] out, float minValue, float maxValue) {
+		SplittableRandom random = getRandom();
+		double range = (maxValue - minValue) + 1;
+		for (int i = 0; i < out.length; i++) {
+			out[i] = (float) (minValue + random.nextDouble() * range);
+		}
+		return out;
+	}
+	
+	/**
+	 * Fills the array with values of {@link #randomInteger(int, int)}.
+	 */
+	public static int[] fill(int[] out, int minValue, int maxValue) {
+		SplittableRandom random = getRandom();
+		double range = ((double) maxValue - minValue) + 1;
+		for (int i = 0; i < out.length; i++) {
+			out[i] = (int) (minValue + random.nextDouble() * range);
+		}
+		return out;
 	}
 	
 	public static Object choose(final Object...objects) {
@@ -45,5 +140,22 @@ public class Randoms {
 	public static boolean chance(final double percentage) {
 		return (randomDouble(1) > percentage);
 	}
+	
+	static class Generator {
+		
+		SplittableRandom random;
+		
+		int generation;
+		
+		Generator() {
+			reset();
+		}
+		
+		void reset() {
+			this.generation = seedGeneration;
+			this.random = seeded ? new SplittableRandom(seed) : new SplittableRandom();
+		}
+		
+	}
 
 }
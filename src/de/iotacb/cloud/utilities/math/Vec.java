@@ -30,8 +30,15 @@ public class Vec {
 	}
 	
 	public static Vec random() {
-		double rand_number = Math.random() * Maths.TAU;
-		return new Vec(Math.cos(rand_number), Math.sin(rand_number));
+		return random(new Vec());
+	}
+	
+	/**
+	 * Sets the vector to a random direction with a length of one and returns it.
+	 */
+	public static Vec random(Vec out) {
+		double rand_number = Randoms.getRandom().nextDouble() * Maths.TAU;
+		return out.set(Math.cos(rand_number), Math.sin(rand_number), 0);
 	}
 	
 	public static Vec random(double xMin, double xMax) {
@@ -53,18 +60,15 @@ public class Vec {
 	}
 	
 	public Vec randomize(double xMin, double xMax) {
-		set(Vec.random(xMin, xMax));
-		return this;
+		return set(Randoms.randomDouble(xMin, xMax), 0, 0);
 	}
 	
 	public Vec randomize(double xMin, double xMax, double yMin, double yMax) {
-		set(Vec.random(xMin, xMax, yMin, yMax));
-		return this;
+		return set(Randoms.randomDouble(xMin, xMax), Randoms.randomDouble(yMin, yMax), 0);
 	}
 	
 	public Vec randomize(double xMin, double xMax, double yMin, double yMax, double zMin, double zMax) {
-		set(Vec.random(xMin, xMax, yMin, yMax, zMin, zMax));
-		return this;
+		return set(Randoms.randomDouble(xMin, xMax), Randoms.randomDouble(yMin, yMax), Randoms.randomDouble(zMin, zMax));
 	}
 	
 	public Vec set(double x) {
@@ -167,6 +171,16 @@ public class Vec {
 		return this;
 	}
 	
+	/**
+	 * Multiplies every component with the factor.
+	 */
+	public Vec scale(double factor) {
+		this.x *= factor;
+		this.y *= factor;
+		this.z *= factor;
+		return this;
+	}
+	
 	public Vec div(double x) {
 		this.x /= x;
 		return this;
@@ -224,10 +238,11 @@ public class Vec {
 	}
 	
 	public Vec fromAngle(double angle) {
-		double x = Math.cos(angle);
-		double y = Math.sin(angle);
-		double z = Math.tan(angle);
-		return new Vec(x, y, z);
+		return fromAngle(angle, new Vec());
+	}
+	
+	public Vec normalize(Vec out) {
+		return out.set(this).normalize();
 	}
 	
 	public Vec normalize() {
@@ -291,19 +306,72 @@ public class Vec {
 	}
 	
 	public Vec mirror() {
-		return new Vec(x * -1, y * -1, z * -1);
+		return mirror(new Vec());
 	}
 	
 	public Vec pos() {
-		return new Vec(Math.abs(x), Math.abs(y), Math.abs(z));
+		return pos(new Vec());
 	}
 	
 	public Vec neg() {
-		return new Vec(Math.abs(x) * -1, Math.abs(y) * -1, Math.abs(z) * -1);
+		return neg(new Vec());
 	}
 	
 	public Vec center() {
-		return new Vec(x / 2, y / 2, z / 2);
+		return center(new Vec());
+	}
+	
+	/*
+	 * Variants writing the result into the out vector instead of a new one, they return the out vector.
+	 * The out vector may be this vector or the argument.
+	 */
+	
+	public Vec add(Vec vec, Vec out) {
+		return out.set(this.x + vec.x, this.y + vec.y, this.z + vec.z);
+	}
+	
+	public Vec sub(Vec vec, Vec out) {
+		return out.set(this.x - vec.x, this.y - vec.y, this.z - vec.z);
+	}
+	
+	public Vec mul(Vec vec, Vec out) {
+		return out.set(this.x * vec.x, this.y * vec.y, this.z * vec.z);
+	}
+	
+	public Vec mul(double x, double y, double z, Vec out) {
+		return out.set(this.x * x, this.y * y, this.z * z);
+	}
+	
+	public Vec scale(double factor, Vec out) {
+		return out.set(this.x * factor, this.y * factor, this.z * factor);
+	}
+	
+	public Vec div(Vec vec, Vec out) {
+		return out.set(this.x / vec.x, this.y / vec.y, this.z / vec.z);
+	}
+	
+	public Vec cross(Vec vec, Vec out) {
+		return out.set(this.y * vec.z - this.z * vec.y, this.z * vec.x - this.x * vec.z, this.x * vec.y - this.y * vec.x);
+	}
+	
+	public Vec fromAngle(double angle, Vec out) {
+		return out.set(Math.cos(angle), Math.sin(angle), Math.tan(angle));
+	}
+	
+	public Vec mirror(Vec out) {
+		return out.set(x * -1, y * -1, z * -1);
+	}
+	
+	public Vec pos(Vec out) {
+		return out.set(Math.abs(x), Math.abs(y), Math.abs(z));
+	}
+	
+	public Vec neg(Vec out) {
+		return out.set(Math.abs(x) * -1, Math.abs(y) * -1, Math.abs(z) * -1);
+	}
+	
+	public Vec center(Vec out) {
+		return out.set(x / 2, y / 2, z / 2);
 	}
 	
 	public Vec zero() {
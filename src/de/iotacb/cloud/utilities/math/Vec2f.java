@@ -0,0 +1,214 @@
+package de.iotacb.cloud.utilities.math;
+
+/**
+ * Two dimensional float vector for the render path, half the size of a {@link Vec}
+ * and passed to gl and vertex buffers without conversion.
+ */
+public class Vec2f {
+
+	public float x, y;
+
+	public Vec2f() {
+	}
+
+	public Vec2f(float x, float y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public Vec2f(Vec2f vec) {
+		this.x = vec.x;
+		this.y = vec.y;
+	}
+
+	public Vec2f(Vec vec) {
+		this.x = (float) vec.x;
+		this.y = (float) vec.y;
+	}
+
+	public Vec2f set(float x, float y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	public Vec2f set(Vec2f vec) {
+		this.x = vec.x;
+		this.y = vec.y;
+		return this;
+	}
+
+	public Vec2f set(Vec vec) {
+		this.x = (float) vec.x;
+		this.y = (float) vec.y;
+		return this;
+	}
+
+	public Vec2f add(float x, float y) {
+		this.x += x;
+		this.y += y;
+		return this;
+	}
+
+	public Vec2f add(Vec2f vec) {
+		this.x += vec.x;
+		this.y += vec.y;
+		return this;
+	}
+
+	public Vec2f sub(float x, float y) {
+		this.x -= x;
+		this.y -= y;
+		return this;
+	}
+
+	public Vec2f sub(Vec2f vec) {
+		this.x -= vec.x;
+		this.y -= vec.y;
+		return this;
+	}
+
+	public Vec2f mul(float x, float y) {
+		this.x *= x;
+		this.y *= y;
+		return this;
+	}
+
+	public Vec2f mul(Vec2f vec) {
+		this.x *= vec.x;
+		this.y *= vec.y;
+		return this;
+	}
+
+	public Vec2f scale(float factor) {
+		this.x *= factor;
+		this.y *= factor;
+		return this;
+	}
+
+	public Vec2f div(float x, float y) {
+		this.x /= x;
+		this.y /= y;
+		return this;
+	}
+
+	public Vec2f div(Vec2f vec) {
+		this.x /= vec.x;
+		this.y /= vec.y;
+		return this;
+	}
+
+	public float dot(float x, float y) {
+		return this.x * x + this.y * y;
+	}
+
+	public float dot(Vec2f vec) {
+		return dot(vec.x, vec.y);
+	}
+
+	public float cross(Vec2f vec) {
+		return this.x * vec.y - this.y * vec.x;
+	}
+
+	public Vec2f normalize() {
+		float magnitude = getMagnitude();
+		if (magnitude != 0 && magnitude != 1) {
+			this.x /= magnitude;
+			this.y /= magnitude;
+		}
+		return this;
+	}
+
+	public float getMagnitude() {
+		return (float) Math.sqrt(x * x + y * y);
+	}
+
+	public float getMagnitudeSq() {
+		return x * x + y * y;
+	}
+
+	public Vec2f setMagnitude(float magnitude) {
+		return normalize().scale(magnitude);
+	}
+
+	public Vec2f lerp(Vec2f target, float amount) {
+		this.x += (target.x - this.x) * amount;
+		this.y += (target.y - this.y) * amount;
+		return this;
+	}
+
+	public Vec2f zero() {
+		this.x = 0;
+		this.y = 0;
+		return this;
+	}
+
+	public float direction() {
+		return (float) Math.atan2(y, x);
+	}
+
+	public float distance(float x, float y) {
+		float xDiff = this.x - x;
+		float yDiff = this.y - y;
+		return (float) Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+	}
+
+	public float distance(Vec2f vec) {
+		return distance(vec.x, vec.y);
+	}
+
+	public boolean equal(float x, float y) {
+		return this.x == x && this.y == y;
+	}
+
+	public boolean equal(Vec2f vec) {
+		return equal(vec.x, vec.y);
+	}
+
+	/*
+	 * Variants writing the result into the out vector, which may be this vector or the argument.
+	 */
+
+	public Vec2f add(Vec2f vec, Vec2f out) {
+		return out.set(this.x + vec.x, this.y + vec.y);
+	}
+
+	public Vec2f sub(Vec2f vec, Vec2f out) {
+		return out.set(this.x - vec.x, this.y - vec.y);
+	}
+
+	public Vec2f mul(Vec2f vec, Vec2f out) {
+		return out.set(this.x * vec.x, this.y * vec.y);
+	}
+
+	public Vec2f scale(float factor, Vec2f out) {
+		return out.set(this.x * factor, this.y * factor);
+	}
+
+	public Vec2f normalize(Vec2f out) {
+		return out.set(this).normalize();
+	}
+
+	public Vec toVec() {
+		return new Vec(x, y);
+	}
+
+	@Override
+	public Vec2f clone() {
+		return new Vec2f(this);
+	}
+
+	public float getX() {
+		return this.x;
+	}
+
+	public float getY() {
+		return this.y;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("{%s, %s}", x, y);
+	}
+
+}
@@ -0,0 +1,84 @@
+package de.iotacb.cloud.utilities.math;
+
+import java.util.Arrays;
+
+/**
+ * Thread local stack of reusable vectors for temporaries in hot code, similar to the MemoryStack of lwjgl.
+ * Vectors taken after {@link #stackPush()} are returned when the frame is closed:
+ * <pre>
+ * try (VecStack stack = VecStack.stackPush()) {
+ *     Vec velocity = stack.vec(x, y).normalize();
+ * }
+ * </pre>
+ * The vectors must not be kept after the frame was closed.
+ */
+public class VecStack implements AutoCloseable {
+	
+	private static final ThreadLocal<VecStack> STACKS = ThreadLocal.withInitial(VecStack::new);
+	
+	Vec[] vecs;
+	
+	int[] frames;
+	
+	int pointer, depth;
+	
+	VecStack() {
+		this.vecs = new Vec[32];
+		for (int i = 0; i < this.vecs.length; i++) {
+			this.vecs[i] = new Vec();
+		}
+		this.frames = new int[8];
+	}
+	
+	public static VecStack stackGet() {
+		return STACKS.get();
+	}
+	
+	public static VecStack stackPush() {
+		return STACKS.get().push();
+	}
+	
+	public VecStack push() {
+		if (this.depth == this.frames.length) {
+			this.frames = Arrays.copyOf(this.frames, this.depth * 2);
+		}
+		this.frames[this.depth++] = this.pointer;
+		return this;
+	}
+	
+	public void pop() {
+		this.pointer = this.frames[--this.depth];
+	}
+	
+	@Override
+	public void close() {
+		pop();
+	}
+	
+	/**
+	 * Returns a zeroed vector of the current frame.
+	 */
+	public Vec vec() {
+		if (this.pointer == this.vecs.length) {
+			int length = this.vecs.length;
+			this.vecs = Arrays.copyOf(this.vecs, length * 2);
+			for (int i = length; i < this.vecs.length; i++) {
+				this.vecs[i] = new Vec();
+			}
+		}
+		return this.vecs[this.pointer++].zero();
+	}
+	
+	public Vec vec(double x, double y) {
+		return vec().set(x, y);
+	}
+	
+	public Vec vec(double x, double y, double z) {
+		return vec().set(x, y, z);
+	}
+	
+	public Vec vec(Vec vec) {
+		return vec().set(vec);
+	}
+	
+}
@@ -0,0 +1,200 @@
+package de.iotacb.cloud.utilities.render;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import de.iotacb.cloud.core.window.Window;
+
+/**
+ * Decodes images on a pool of worker threads. The decoded pixels are queued and uploaded
+ * by the window on the render thread, limited by a time budget per frame.
+ * Futures are completed on the render thread, so callbacks can draw or upload themselves.
+ */
+public class AssetLoader {
+
+	ExecutorService workers;
+
+	ConcurrentLinkedQueue<Upload> uploads;
+
+	// increased by destroy, workers of an older generation free their images instead of queueing them
+	int generation;
+
+	int threads;
+
+	// loads can be queued from any thread, the finished ones are counted on the render thread
+	AtomicInteger queued, finished;
+
+	public AssetLoader(int threads) {
+		this.threads = Math.max(1, threads);
+		this.uploads = new ConcurrentLinkedQueue<>();
+		this.queued = new AtomicInteger();
+		this.finished = new AtomicInteger();
+	}
+
+	private ExecutorService getWorkers() {
+		if (this.workers == null) {
+			this.workers = Executors.newFixedThreadPool(this.threads, runnable -> {
+				Thread thread = new Thread(runnable, "Cloud Asset Loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.workers;
+	}
+
+	public CompletableFuture<Image> loadImage(Window window, File file) {
+		synchronized (this) {
+			if (this.finished.get() == this.queued.get()) {
+				this.finished.set(0);
+				this.queued.set(0);
+			}
+			this.queued.incrementAndGet();
+		}
+
+		Image image = new Image(window, file, false);
+		CompletableFuture<Image> future = new CompletableFuture<>();
+		int generation;
+		synchronized (this) {
+			generation = this.generation;
+		}
+		getWorkers().execute(() -> {
+			Throwable error = null;
+			try {
+				image.decode();
+			} catch (Throwable e) {
+				// corrupt files can fail with any exception, the future has to complete anyway
+				error = e;
+			}
+			queue(new Upload(image, future, error), generation);
+		});
+		return future;
+	}
+
+	private synchronized void queue(Upload upload, int generation) {
+		if (generation != this.generation) {
+			upload.cancel();
+			return;
+		}
+		this.uploads.add(upload);
+	}
+
+	public CompletableFuture<Image> loadImage(Window window, String path) {
+		return loadImage(window, new File(path));
+	}
+
+	public CompletableFuture<Image> loadImage(Window window, File file, Consumer<Image> callback) {
+		CompletableFuture<Image> future = loadImage(window, file);
+		future.thenAccept(callback);
+		return future;
+	}
+
+	public CompletableFuture<Image> loadImage(Window window, String path, Consumer<Image> callback) {
+		return loadImage(window, new File(path), callback);
+	}
+
+	/**
+	 * Uploads decoded images until the budget is used up, at least one image is uploaded per call.
+	 */
+	public void update(long budgetNanos) {
+		long start = System.nanoTime();
+		Upload upload;
+		while ((upload = this.uploads.poll()) != null) {
+			upload.run();
+			this.finished.incrementAndGet();
+			if (System.nanoTime() - start >= budgetNanos) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Stops the workers and frees the images which are decoded but not uploaded yet, their futures are cancelled.
+	 */
+	public void destroy() {
+		if (this.workers != null) {
+			this.workers.shutdownNow();
+			try {
+				this.workers.awaitTermination(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.workers = null;
+		}
+		synchronized (this) {
+			// workers which are still decoding free their image once they are done
+			this.generation++;
+			Upload upload;
+			while ((upload = this.uploads.poll()) != null) {
+				upload.cancel();
+			}
+			this.queued.set(0);
+			this.finished.set(0);
+		}
+	}
+
+	/**
+	 * Progress of the images queued since the loader was last idle, from 0 to 1.
+	 */
+	public double getProgress() {
+		int queued = this.queued.get();
+		return queued == 0 ? 1 : this.finished.get() / (double) queued;
+	}
+
+	public boolean isFinished() {
+		return finished.get() == queued.get();
+	}
+
+	public int getQueued() {
+		return queued.get();
+	}
+
+	public int getFinished() {
+		return finished.get();
+	}
+
+	/**
+	 * Decoded image waiting for its upload on the render thread, or the error of its decoding.
+	 */
+	static class Upload {
+
+		Image image;
+
+		CompletableFuture<Image> future;
+
+		Throwable error;
+
+		Upload(Image image, CompletableFuture<Image> future, Throwable error) {
+			this.image = image;
+			this.future = future;
+			this.error = error;
+		}
+
+		void run() {
+			if (this.error != null) {
+				this.image.freePixels();
+				this.future.completeExceptionally(this.error);
+				return;
+			}
+			try {
+				this.image.upload();
+				this.future.complete(this.image);
+			} catch (Throwable e) {
+				this.image.freePixels();
+				this.future.completeExceptionally(e);
+			}
+		}
+
+		void cancel() {
+			this.image.freePixels();
+			this.future.cancel(false);
+		}
+
+	}
+
+}
@@ -0,0 +1,161 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_LIGHTING;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.glTexCoord2d;
+
+import java.awt.Color;
+
+import de.iotacb.cloud.utilities.math.Vec;
+
+/**
+ * A packed image inside of a {@link TextureAtlas}, drawn the same way as an {@link Image}.
+ */
+public class AtlasRegion {
+
+	TextureAtlas atlas;
+
+	String name;
+
+	int x, y, width, height;
+
+	double u1, v1, u2, v2;
+
+	AtlasRegion(TextureAtlas atlas, String name, int x, int y, int width, int height) {
+		this.atlas = atlas;
+		this.name = name;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+		this.u1 = x / (double) atlas.atlasWidth;
+		this.v1 = y / (double) atlas.atlasHeight;
+		this.u2 = (x + width) / (double) atlas.atlasWidth;
+		this.v2 = (y + height) / (double) atlas.atlasHeight;
+	}
+
+	public void drawImage(double x, double y, double width, double height) {
+		width /= 2;
+		height /= 2;
+
+		Render.push();
+
+		Render.color(Color.white);
+
+		Render.enable(GL_TEXTURE_2D);
+		Render.enable(GL_BLEND);
+		Render.disable(GL_LIGHTING);
+		Textures.bind(this.atlas.textureId);
+
+		double diffW = Math.abs(this.width - width);
+		double diffH = Math.abs(this.height - height);
+		x += (this.width - diffW);
+		y += (this.height - diffH);
+
+		Render.begin(GL_QUADS);
+		{
+			glTexCoord2d(this.u1, this.v2);
+			Render.vertex(x - width, y + height);
+			glTexCoord2d(this.u2, this.v2);
+			Render.vertex(x + width, y + height);
+			glTexCoord2d(this.u2, this.v1);
+			Render.vertex(x + width, y - height);
+			glTexCoord2d(this.u1, this.v1);
+			Render.vertex(x - width, y - height);
+		}
+		Render.end();
+
+		Render.enable(GL_LIGHTING);
+		Render.disable(GL_BLEND);
+		Render.disable(GL_TEXTURE_2D);
+
+		Render.pop();
+	}
+
+	public void drawImage(Vec location, Vec size) {
+		drawImage(location.x, location.y, size.x, size.y);
+	}
+
+	public void drawImage(double x, double y) {
+		drawImage(x, y, this.width, this.height);
+	}
+
+	public void drawImage(Vec location) {
+		drawImage(location.x, location.y, this.width, this.height);
+	}
+
+	public void drawImage(SpriteBatch batch, double x, double y, double width, double height) {
+		width /= 2;
+		height /= 2;
+
+		double diffW = Math.abs(this.width - width);
+		double diffH = Math.abs(this.height - height);
+		x += (this.width - diffW);
+		y += (this.height - diffH);
+
+		batch.draw(this.atlas.textureId, x - width, y - height, x + width, y + height, this.u1, this.v1, this.u2, this.v2);
+	}
+
+	public void drawImage(SpriteBatch batch, Vec location, Vec size) {
+		drawImage(batch, location.x, location.y, size.x, size.y);
+	}
+
+	public void drawImage(SpriteBatch batch, double x, double y) {
+		drawImage(batch, x, y, this.width, this.height);
+	}
+
+	public void drawImage(SpriteBatch batch, Vec location) {
+		drawImage(batch, location.x, location.y, this.width, this.height);
+	}
+
+	public void drawImageCentered(double x, double y, double width, double height) {
+		drawImage(x - width / 2, y - height / 2, width, height);
+	}
+
+	public void drawImageCentered(Vec location, Vec size) {
+		drawImage(location.x - size.x / 2, location.y - size.y / 2, size.x, size.y);
+	}
+
+	public void drawImageCentered(double x, double y) {
+		drawImage(x - this.width / 2, y - this.height / 2, this.width, this.height);
+	}
+
+	public void drawImageCentered(Vec location) {
+		drawImage(location.x - this.width / 2, location.y - this.height / 2, this.width, this.height);
+	}
+
+	public TextureAtlas getAtlas() {
+		return atlas;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getImageWidth() {
+		return width;
+	}
+
+	public int getImageHeight() {
+		return height;
+	}
+
+	public double getU1() {
+		return u1;
+	}
+
+	public double getV1() {
+		return v1;
+	}
+
+	public double getU2() {
+		return u2;
+	}
+
+	public double getV2() {
+		return v2;
+	}
+
+}
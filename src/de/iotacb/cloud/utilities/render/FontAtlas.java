@@ -0,0 +1,239 @@
+package de.iotacb.cloud.utilities.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.lwjgl.stb.STBTTBakedChar;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTruetype;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Bakes the glyphs of a TrueType font into one texture with stb_truetype.
+ * Every glyph is drawn as one textured quad through a {@link SpriteBatch},
+ * the metrics are kept on the heap so measuring text never touches the font again.
+ */
+public class FontAtlas {
+
+	static final int FIRST_CHAR = 32, CHAR_COUNT = 224, MAX_BITMAP_SIZE = 4096;
+
+	// per glyph: offset and size of the quad relative to the pen, texture coordinates and advance
+	float[] offsetX, offsetY, glyphWidth, glyphHeight, u1, v1, u2, v2, advance;
+
+	float pixelHeight, ascent, lineHeight;
+
+	int bitmapWidth, bitmapHeight, textureId;
+
+	public FontAtlas(File file, float pixelHeight) {
+		this(file, pixelHeight, 512);
+	}
+
+	public FontAtlas(String file, float pixelHeight) {
+		this(new File(file), pixelHeight);
+	}
+
+	/**
+	 * Loads the font file and bakes the printable latin 1 characters, starting with a bitmap of the given width.
+	 */
+	public FontAtlas(File file, float pixelHeight, int bitmapSize) {
+		this.pixelHeight = pixelHeight;
+		this.offsetX = new float[CHAR_COUNT];
+		this.offsetY = new float[CHAR_COUNT];
+		this.glyphWidth = new float[CHAR_COUNT];
+		this.glyphHeight = new float[CHAR_COUNT];
+		this.u1 = new float[CHAR_COUNT];
+		this.v1 = new float[CHAR_COUNT];
+		this.u2 = new float[CHAR_COUNT];
+		this.v2 = new float[CHAR_COUNT];
+		this.advance = new float[CHAR_COUNT];
+
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file.toPath());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		ByteBuffer fontData = MemoryUtil.memAlloc(bytes.length);
+		fontData.put(bytes).flip();
+		try {
+			readMetrics(fontData);
+			bake(fontData, bitmapSize);
+		} finally {
+			MemoryUtil.memFree(fontData);
+		}
+	}
+
+	private void readMetrics(ByteBuffer fontData) {
+		STBTTFontinfo info = STBTTFontinfo.malloc();
+		try {
+			if (!STBTruetype.stbtt_InitFont(info, fontData)) {
+				return;
+			}
+			int[] ascent = new int[1], descent = new int[1], lineGap = new int[1];
+			STBTruetype.stbtt_GetFontVMetrics(info, ascent, descent, lineGap);
+			float scale = STBTruetype.stbtt_ScaleForPixelHeight(info, this.pixelHeight);
+			this.ascent = ascent[0] * scale;
+			this.lineHeight = (ascent[0] - descent[0] + lineGap[0]) * scale;
+		} finally {
+			info.free();
+		}
+	}
+
+	private void bake(ByteBuffer fontData, int bitmapSize) {
+		STBTTBakedChar.Buffer chars = STBTTBakedChar.malloc(CHAR_COUNT);
+		try {
+			int width = bitmapSize, height = bitmapSize;
+			ByteBuffer bitmap = MemoryUtil.memAlloc(width * height);
+			int usedRows = STBTruetype.stbtt_BakeFontBitmap(fontData, this.pixelHeight, bitmap, width, height, FIRST_CHAR, chars);
+
+			// a negative result means only part of the characters did fit
+			while (usedRows <= 0) {
+				MemoryUtil.memFree(bitmap);
+				if (width >= MAX_BITMAP_SIZE) {
+					try {
+						throw new Exception("Glyphs do not fit into the font atlas. Error: #006");
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+					return;
+				}
+				width *= 2;
+				height *= 2;
+				bitmap = MemoryUtil.memAlloc(width * height);
+				usedRows = STBTruetype.stbtt_BakeFontBitmap(fontData, this.pixelHeight, bitmap, width, height, FIRST_CHAR, chars);
+			}
+
+			// the rows below the last glyph stay empty, so they are not uploaded
+			this.bitmapWidth = width;
+			this.bitmapHeight = usedRows;
+			upload(bitmap);
+			MemoryUtil.memFree(bitmap);
+
+			for (int i = 0; i < CHAR_COUNT; i++) {
+				STBTTBakedChar glyph = chars.get(i);
+				this.offsetX[i] = glyph.xoff();
+				this.offsetY[i] = glyph.yoff();
+				this.glyphWidth[i] = glyph.x1() - glyph.x0();
+				this.glyphHeight[i] = glyph.y1() - glyph.y0();
+				this.u1[i] = glyph.x0() / (float) this.bitmapWidth;
+				this.v1[i] = glyph.y0() / (float) this.bitmapHeight;
+				this.u2[i] = glyph.x1() / (float) this.bitmapWidth;
+				this.v2[i] = glyph.y1() / (float) this.bitmapHeight;
+				this.advance[i] = glyph.xadvance();
+			}
+		} finally {
+			chars.free();
+		}
+	}
+
+	private void upload(ByteBuffer bitmap) {
+		int pixels = this.bitmapWidth * this.bitmapHeight;
+		ByteBuffer rgba = MemoryUtil.memAlloc(pixels * 4);
+		for (int i = 0; i < pixels; i++) {
+			rgba.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put(bitmap.get(i));
+		}
+		rgba.flip();
+		this.textureId = Textures.upload(this.bitmapWidth, this.bitmapHeight, rgba);
+		MemoryUtil.memFree(rgba);
+	}
+
+	private int glyph(char character) {
+		int index = character - FIRST_CHAR;
+		return index >= 0 && index < CHAR_COUNT ? index : -1;
+	}
+
+	/**
+	 * Adds one quad per glyph to the batch, the location is the top left corner of the first line.
+	 * The batch has to be drawing already, the color is taken from the batch.
+	 */
+	public void drawText(SpriteBatch batch, double x, double y, String text, double scale) {
+		if (this.textureId == 0) {
+			return;
+		}
+		double penX = x, baseline = y + this.ascent * scale;
+		for (int i = 0; i < text.length(); i++) {
+			char character = text.charAt(i);
+			if (character == '\n') {
+				penX = x;
+				baseline += this.lineHeight * scale;
+				continue;
+			}
+			int glyph = glyph(character);
+			if (glyph == -1) {
+				continue;
+			}
+			if (this.glyphWidth[glyph] > 0) {
+				double x1 = penX + this.offsetX[glyph] * scale, y1 = baseline + this.offsetY[glyph] * scale;
+				batch.draw(this.textureId, x1, y1, x1 + this.glyphWidth[glyph] * scale, y1 + this.glyphHeight[glyph] * scale,
+						this.u1[glyph], this.v1[glyph], this.u2[glyph], this.v2[glyph]);
+			}
+			penX += this.advance[glyph] * scale;
+		}
+	}
+
+	public void drawText(SpriteBatch batch, double x, double y, String text) {
+		drawText(batch, x, y, text, 1);
+	}
+
+	/**
+	 * Returns the width of the widest line at the baked size.
+	 */
+	public float getWidth(String text) {
+		float width = 0, lineWidth = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char character = text.charAt(i);
+			if (character == '\n') {
+				width = Math.max(width, lineWidth);
+				lineWidth = 0;
+				continue;
+			}
+			int glyph = glyph(character);
+			if (glyph != -1) {
+				lineWidth += this.advance[glyph];
+			}
+		}
+		return Math.max(width, lineWidth);
+	}
+
+	/**
+	 * Returns the advance of a single character at the baked size.
+	 */
+	public float getAdvance(char character) {
+		int glyph = glyph(character);
+		return glyph == -1 ? 0 : this.advance[glyph];
+	}
+
+	public void destroy() {
+		Textures.delete(this.textureId);
+		this.textureId = 0;
+	}
+
+	public float getPixelHeight() {
+		return pixelHeight;
+	}
+
+	public float getAscent() {
+		return ascent;
+	}
+
+	public float getLineHeight() {
+		return lineHeight;
+	}
+
+	public int getTextureId() {
+		return textureId;
+	}
+
+	public int getBitmapWidth() {
+		return bitmapWidth;
+	}
+
+	public int getBitmapHeight() {
+		return bitmapHeight;
+	}
+
+}
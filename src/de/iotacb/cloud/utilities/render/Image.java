@@ -1,35 +1,26 @@
 package de.iotacb.cloud.utilities.render;
 
-import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_LIGHTING;
-import static org.lwjgl.opengl.GL11.GL_LINEAR;
 import static org.lwjgl.opengl.GL11.GL_QUADS;
-import static org.lwjgl.opengl.GL11.GL_RGBA;
-import static org.lwjgl.opengl.GL11.GL_RGBA8;
 import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
-import static org.lwjgl.opengl.GL11.glBindTexture;
-import static org.lwjgl.opengl.GL11.glGenTextures;
 import static org.lwjgl.opengl.GL11.glTexCoord2d;
-import static org.lwjgl.opengl.GL11.glTexImage2D;
-import static org.lwjgl.opengl.GL11.glTexParameteri;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 import javax.imageio.ImageIO;
 
 import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL12;
-import org.lwjgl.opengl.GL30;
+import org.lwjgl.stb.STBImage;
 
 import de.iotacb.cloud.core.window.Window;
+import de.iotacb.cloud.core.window.icon.ImageParser;
 import de.iotacb.cloud.utilities.math.Vec;
 import de.iotacb.cloud.utilities.time.Timer;
 
@@ -43,6 +34,8 @@ public class Image {
 
 	ByteBuffer pixelBuffer;
 
+	boolean nativePixels;
+
 	Window window;
 
 	Timer animationTimer;
@@ -69,6 +62,22 @@ public class Image {
 		}
 	}
 
+	/**
+	 * Creates the image without loading it, used by the {@link AssetLoader}.
+	 */
+	Image(Window window, File file, boolean initialize) {
+		this.window = window;
+		this.imageFile = file;
+		this.animationTimer = new Timer();
+		if (initialize) {
+			try {
+				initialize();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
 	public Image(Window window, Image[] images) {
 		this.window = window;
 		this.images = images;
@@ -81,39 +90,95 @@ public class Image {
 	}
 
 	private void initialize() throws IOException {
-		this.animationTimer = new Timer();
+		decode();
+		upload();
+	}
 
-		this.imageId = glGenTextures();
+	/**
+	 * Reads the image file into the pixel buffer, does not touch gl so it can run on any thread.
+	 */
+	void decode() throws IOException {
+		this.animationTimer = new Timer();
 
 		if (this.imageFile == null && this.images.length > 0) {
 			this.imageFile = this.images[0].imageFile;
 		}
 
+		// stb decodes straight to rgba in native memory, ImageIO is only needed for formats stb can't read
+		ImageParser parsedImage = ImageParser.loadImage(this.imageFile.getPath());
+		if (parsedImage.image != null) {
+			this.imageWidth = parsedImage.width;
+			this.imageHeight = parsedImage.height;
+			this.pixelBuffer = parsedImage.image;
+			this.nativePixels = true;
+			return;
+		}
+
 		BufferedImage image = ImageIO.read(this.imageFile);
+		if (image == null) {
+			throw new IOException("Unsupported image format: " + this.imageFile);
+		}
 
 		this.imageWidth = image.getWidth();
 		this.imageHeight = image.getHeight();
-
-		int[] imagePixels = image.getRGB(0, 0, imageWidth, imageHeight, null, 0, imageWidth);
-		this.pixelBuffer = BufferUtils.createByteBuffer(imageWidth * imageHeight * 4); // each pixel (rgba) = width * height * 4 (r,g,b,a)
-
-		for (int i = 0; i < imagePixels.length; i++) {
-			int pixel = imagePixels[i];
-			this.pixelBuffer.put((byte) (pixel >> 16 & 0xFF)); // red
-			this.pixelBuffer.put((byte) (pixel >> 8 & 0xFF)); // green
-			this.pixelBuffer.put((byte) (pixel & 0xFF)); // blue
-			this.pixelBuffer.put((byte) (pixel >> 24 & 0xFF)); // alpha
+		this.pixelBuffer = toPixelBuffer(image);
+		this.nativePixels = false;
+	}
+
+	/**
+	 * Converts the argb pixels of the image to rgba, one row at a time through an int view of the buffer.
+	 */
+	static ByteBuffer toPixelBuffer(BufferedImage image) {
+		int width = image.getWidth(), height = image.getHeight();
+		ByteBuffer pixelBuffer = BufferUtils.createByteBuffer(width * height * 4); // each pixel (rgba) = width * height * 4 (r,g,b,a)
+		IntBuffer pixelInts = pixelBuffer.asIntBuffer();
+		boolean littleEndian = pixelBuffer.order() == ByteOrder.LITTLE_ENDIAN;
+
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, row, 0, width);
+			if (littleEndian) {
+				for (int x = 0; x < width; x++) {
+					int pixel = row[x];
+					row[x] = (pixel & 0xFF00FF00) | (pixel >> 16 & 0xFF) | (pixel & 0xFF) << 16; // argb -> abgr
+				}
+			} else {
+				for (int x = 0; x < width; x++) {
+					int pixel = row[x];
+					row[x] = pixel << 8 | pixel >>> 24; // argb -> rgba
+				}
+			}
+			pixelInts.put(row);
 		}
 
-		this.pixelBuffer.flip();
+		return pixelBuffer;
+	}
+
+	void upload() {
+		Textures.delete(this.imageId);
+		this.imageId = Textures.upload(this.imageWidth, this.imageHeight, this.pixelBuffer);
+		freePixels(); // the pixels live on the gpu now
 
 		this.finishedLoading = true;
 	}
 
+	/**
+	 * Releases the decoded pixels, for images which are uploaded or will never be.
+	 */
+	void freePixels() {
+		if (this.nativePixels && this.pixelBuffer != null) {
+			STBImage.stbi_image_free(this.pixelBuffer);
+		}
+		this.pixelBuffer = null;
+	}
+
 	public void drawImage(double x, double y, double width, double height) {
-		if (this.pixelBuffer == null) {
+		if (!this.finishedLoading) {
+			return;
+		}
+		if (this.imageId == 0) {
 			try {
-				throw new Exception("Pixel buffer of image is empty. Error: #004");
+				throw new Exception("Texture of image is not uploaded. Error: #004");
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -129,13 +194,7 @@ public class Image {
 		Render.enable(GL_TEXTURE_2D);
 		Render.enable(GL_BLEND);
 		Render.disable(GL_LIGHTING);
-		glBindTexture(GL_TEXTURE_2D, this.imageId);
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, this.imageWidth, this.imageHeight, 0, GL_RGBA, GL_UNSIGNED_BYTE,
-				this.pixelBuffer);
+		Textures.bind(this.imageId);
 
 		double diffW = Math.abs(this.imageWidth - width);
 		double diffH = Math.abs(this.imageHeight - height);
@@ -154,9 +213,7 @@ public class Image {
 			Render.vertex(x - width, y - height);
 		}
 		Render.end();
-		
-		GL30.glGenerateMipmap(imageId);
-		
+
 		Render.enable(GL_LIGHTING);
 		Render.disable(GL_BLEND);
 		Render.disable(GL_TEXTURE_2D);
@@ -184,6 +241,33 @@ public class Image {
 		drawImage(location.x, location.y, this.imageWidth, this.imageHeight);
 	}
 
+	public void drawImage(SpriteBatch batch, double x, double y, double width, double height) {
+		if (!this.finishedLoading) {
+			return;
+		}
+		width /= 2;
+		height /= 2;
+
+		double diffW = Math.abs(this.imageWidth - width);
+		double diffH = Math.abs(this.imageHeight - height);
+		x += (this.imageWidth - diffW);
+		y += (this.imageHeight - diffH);
+
+		batch.draw(this.imageId, x - width, y - height, x + width, y + height, 0, 0, 1, 1);
+	}
+
+	public void drawImage(SpriteBatch batch, Vec location, Vec size) {
+		drawImage(batch, location.x, location.y, size.x, size.y);
+	}
+
+	public void drawImage(SpriteBatch batch, double x, double y) {
+		drawImage(batch, x, y, this.imageWidth, this.imageHeight);
+	}
+
+	public void drawImage(SpriteBatch batch, Vec location) {
+		drawImage(batch, location.x, location.y, this.imageWidth, this.imageHeight);
+	}
+
 	public void drawImageIndex(double x, double y, double width, double height, int index) {
 		if (index < 0 || index > this.images.length - 1 || this.images == null) {
 			return;
@@ -362,6 +446,19 @@ public class Image {
 			e.printStackTrace();
 		}
 	}
+
+	public void deleteImage() {
+		Textures.delete(this.imageId);
+		this.imageId = 0;
+		this.finishedLoading = false;
+	}
+	
+	/**
+	 * Returns the texture of the image, 0 while it is not uploaded.
+	 */
+	public int getImageId() {
+		return imageId;
+	}
 	
 	public int getImageWidth() {
 		return imageWidth;
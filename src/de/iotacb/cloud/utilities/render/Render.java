@@ -6,6 +6,7 @@ import static org.lwjgl.opengl.GL11.GL_LIGHTING;
 import static org.lwjgl.opengl.GL11.GL_LINES;
 import static org.lwjgl.opengl.GL11.GL_LINE_SMOOTH;
 import static org.lwjgl.opengl.GL11.GL_POINT_SMOOTH;
+import static org.lwjgl.opengl.GL11.GL_ONE;
 import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_POLYGON_SMOOTH;
 import static org.lwjgl.opengl.GL11.GL_SMOOTH;
@@ -15,6 +16,7 @@ import static org.lwjgl.opengl.GL11.GL_TRIANGLE_FAN;
 import static org.lwjgl.opengl.GL11.glBegin;
 import static org.lwjgl.opengl.GL11.glBlendFunc;
 import static org.lwjgl.opengl.GL11.glColor4d;
+import static org.lwjgl.opengl.GL11.glColor4f;
 import static org.lwjgl.opengl.GL11.glDisable;
 import static org.lwjgl.opengl.GL11.glEnable;
 import static org.lwjgl.opengl.GL11.glEnd;
@@ -23,27 +25,75 @@ import static org.lwjgl.opengl.GL11.glPopMatrix;
 import static org.lwjgl.opengl.GL11.glPushMatrix;
 import static org.lwjgl.opengl.GL11.glRotated;
 import static org.lwjgl.opengl.GL11.glScaled;
+import static org.lwjgl.opengl.GL11.glScalef;
 import static org.lwjgl.opengl.GL11.glTranslated;
+import static org.lwjgl.opengl.GL11.glTranslatef;
 import static org.lwjgl.opengl.GL11.glVertex2d;
+import static org.lwjgl.opengl.GL11.glVertex2f;
+import static org.lwjgl.opengl.GL14.glBlendFuncSeparate;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 import de.iotacb.cloud.core.window.Window;
 import de.iotacb.cloud.utilities.math.Maths;
 import de.iotacb.cloud.utilities.math.Vec;
+import de.iotacb.cloud.utilities.math.Vec2f;
 
 public class Render {
 	
 	public static Window window;
 	
+	static ShapeBatch shapeBatch;
+	
+	// the sprite batch between its begin and end, flushed together with the shape batch
+	static SpriteBatch spriteBatch;
+	
+	// the layer which is drawn into, set by the layer between begin and end
+	static RenderLayer boundLayer;
+	
+	static double[][] unitPolygons = new double[0][];
+	
 	public static void push() {
+		flush();
 		glPushMatrix();
 	}
 	
 	public static void pop() {
+		flush();
 		glPopMatrix();
 	}
 	
+	/**
+	 * Routes rect, polygon, circle, triangle and line calls into a {@link ShapeBatch}
+	 * which is drawn at the end of the frame or before anything else touches the gl state.
+	 */
+	public static void setBatching(boolean batching) {
+		if (batching && shapeBatch == null) {
+			shapeBatch = new ShapeBatch();
+		} else if (!batching && shapeBatch != null) {
+			shapeBatch.flush();
+			shapeBatch.destroy();
+			shapeBatch = null;
+		}
+	}
+	
+	public static boolean isBatching() {
+		return shapeBatch != null;
+	}
+	
+	/**
+	 * Draws the queued shapes and sprites, called before anything changes the gl state or the matrices.
+	 */
+	public static void flush() {
+		if (shapeBatch != null) {
+			shapeBatch.flush();
+		}
+		if (spriteBatch != null) {
+			spriteBatch.flush();
+		}
+	}
+	
 	public static void enable(int glTarget) {
 		glEnable(glTarget);
 	}
@@ -52,10 +102,22 @@ public class Render {
 		glDisable(glTarget);
 	}
 	
+	/**
+	 * Sets the alpha blending used for everything drawn. While a {@link RenderLayer} is drawn into,
+	 * the alpha of the layer is accumulated separately, so its colors stay premultiplied.
+	 */
+	public static void blendAlpha() {
+		if (boundLayer != null) {
+			glBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+		} else {
+			glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		}
+	}
+	
 	public static void start() {
 		push();
 		enable(GL_BLEND);
-		glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		blendAlpha();
 		disable(GL_LIGHTING);
 		disable(GL_TEXTURE_2D);
 		disable(GL_CULL_FACE);
@@ -83,7 +145,11 @@ public class Render {
     	disable(GL_POLYGON_SMOOTH);
     }
     
+    /**
+     * Starts immediate geometry, the batched shapes and sprites queued before are drawn first to keep the order.
+     */
     public static void begin(int glMode) {
+    	flush();
     	glBegin(glMode);
     }
     
@@ -99,7 +165,16 @@ public class Render {
         vertex(location.x, location.y);
     }
     
+    public static void vertex(float x, float y) {
+        glVertex2f(x, y);
+    }
+    
+    public static void vertex(Vec2f location) {
+        vertex(location.x, location.y);
+    }
+    
     public static void translate(double x, double y) {
+        flush();
         glTranslated(x, y, 0);
     }
     
@@ -107,7 +182,17 @@ public class Render {
         translate(location.x, location.y);
     }
     
+    public static void translate(float x, float y) {
+        flush();
+        glTranslatef(x, y, 0);
+    }
+    
+    public static void translate(Vec2f location) {
+        translate(location.x, location.y);
+    }
+    
     public static void scale(double x, double y) {
+        flush();
         glScaled(x, y, 0);
     }
     
@@ -115,12 +200,30 @@ public class Render {
         scale(scaling.x, scaling.y);
     }
     
+    public static void scale(float x, float y) {
+        flush();
+        glScalef(x, y, 0);
+    }
+    
+    public static void scale(Vec2f scaling) {
+        scale(scaling.x, scaling.y);
+    }
+    
     public static void rotate(double x, double y, double z, double angle) {
+        flush();
         glRotated(angle, x, y, z);
     }
     
     public static void color(double red, double green, double blue, double alpha) {
     	glColor4d(red, green, blue, alpha);
+    	if (shapeBatch != null)
+    		shapeBatch.color(red, green, blue, alpha);
+    }
+    
+    public static void color(float red, float green, float blue, float alpha) {
+    	glColor4f(red, green, blue, alpha);
+    	if (shapeBatch != null)
+    		shapeBatch.color(red, green, blue, alpha);
     }
     
     public static void color(double red, double green, double blue) {
@@ -132,28 +235,102 @@ public class Render {
     }
     
     public static void lineWidth(double width) {
-    	glLineWidth((float)width);
+    	if (shapeBatch != null)
+    		shapeBatch.setLineWidth((float)width);
+    	else
+    		glLineWidth((float)width);
+    }
+    
+    static void startShape() {
+    	if (shapeBatch == null)
+    		start();
+    }
+    
+    static void stopShape() {
+    	if (shapeBatch == null)
+    		stop();
+    }
+    
+    static void beginShape(int glMode) {
+    	if (shapeBatch != null)
+    		shapeBatch.begin(glMode);
+    	else
+    		begin(glMode);
+    }
+    
+    static void endShape() {
+    	if (shapeBatch != null)
+    		shapeBatch.end();
+    	else
+    		end();
+    }
+    
+    static void shapeVertex(double x, double y) {
+    	if (shapeBatch != null)
+    		shapeBatch.vertex(x, y);
+    	else
+    		vertex(x, y);
+    }
+    
+    static void shapeVertex(float x, float y) {
+    	if (shapeBatch != null)
+    		shapeBatch.vertex(x, y);
+    	else
+    		vertex(x, y);
     }
     
     public static void rect(double x, double y, double width, double height, boolean filled, Color color) {
-    	start();
+    	startShape();
     	if (color != null)
     		color(color);
-    	begin(filled ? GL_TRIANGLE_FAN : GL_LINES);
+    	beginShape(filled ? GL_TRIANGLE_FAN : GL_LINES);
     	{
-    		vertex(x, y);
-    		vertex(x + width, y);
-    		vertex(x + width, y + height);
-    		vertex(x, y + height);
+    		shapeVertex(x, y);
+    		shapeVertex(x + width, y);
+    		shapeVertex(x + width, y + height);
+    		shapeVertex(x, y + height);
+    		if (!filled)  {
+    			shapeVertex(x, y);
+    			shapeVertex(x, y + height);
+    			shapeVertex(x + width, y);
+    			shapeVertex(x + width, y + height);
+    		}
+    	}
+    	endShape();
+    	stopShape();
+    }
+    
+    public static void rect(float x, float y, float width, float height, boolean filled, Color color) {
+    	startShape();
+    	if (color != null)
+    		color(color);
+    	beginShape(filled ? GL_TRIANGLE_FAN : GL_LINES);
+    	{
+    		shapeVertex(x, y);
+    		shapeVertex(x + width, y);
+    		shapeVertex(x + width, y + height);
+    		shapeVertex(x, y + height);
     		if (!filled)  {
-    			vertex(x, y);
-    			vertex(x, y + height);
-    			vertex(x + width, y);
-    			vertex(x + width, y + height);
+    			shapeVertex(x, y);
+    			shapeVertex(x, y + height);
+    			shapeVertex(x + width, y);
+    			shapeVertex(x + width, y + height);
     		}
     	}
-    	end();
-    	stop();
+    	endShape();
+    	stopShape();
+    }
+    
+    public static void rect(float x, float y, float width, float height, boolean filled) {
+    	rect(x, y, width, height, filled, null);
+    }
+    
+    public static void rect(Vec2f location, Vec2f size, boolean filled, Color color) {
+    	rect(location.x, location.y, size.x, size.y, filled, color);
+    }
+    
+    public static void rect(Vec2f location, Vec2f size, boolean filled) {
+    	rect(location.x, location.y, size.x, size.y, filled, null);
     }
     
     public static void rect(Vec location, Vec size, boolean filled, Color color) {
@@ -296,20 +473,47 @@ public class Render {
     	rect(location.x - width / 2, location.y - height / 2, width, height);
     }
     
+    /**
+     * Returns the cached unit ring (cos, sin pairs) of a polygon, the first point is repeated at the end.
+     */
+    static double[] unitPolygon(int amountOfSides) {
+    	if (amountOfSides >= unitPolygons.length) {
+    		unitPolygons = Arrays.copyOf(unitPolygons, amountOfSides + 1);
+    	}
+    	double[] ring = unitPolygons[amountOfSides];
+    	if (ring == null) {
+    		ring = new double[(amountOfSides + 1) * 2];
+    		for (int i = 0; i <= amountOfSides; i++) {
+    			double angle = i * Maths.TAU / amountOfSides;
+    			ring[i * 2] = Math.cos(angle);
+    			ring[i * 2 + 1] = Math.sin(angle);
+    		}
+    		unitPolygons[amountOfSides] = ring;
+    	}
+    	return ring;
+    }
+    
     public static void polygon(double x, double y, double sideLength, double amountOfSides, boolean filled, Color color) {
     	sideLength /= 2;
-    	start();
+    	startShape();
     	if (color != null)
     		color(color);
-    	begin(filled ? GL_TRIANGLE_FAN : GL_LINES);
+    	beginShape(filled ? GL_TRIANGLE_FAN : GL_LINES);
     	{
-    		for (double i = 0; i <= amountOfSides; i++) {
-    			double angle = i * Maths.TAU / amountOfSides;
-    			vertex(x + (sideLength * Math.cos(angle)) + sideLength, y + (sideLength * Math.sin(angle)) + sideLength);
+    		if (amountOfSides > 0 && amountOfSides == (int) amountOfSides) {
+    			double[] ring = unitPolygon((int) amountOfSides);
+    			for (int i = 0; i < ring.length; i += 2) {
+    				shapeVertex(x + (sideLength * ring[i]) + sideLength, y + (sideLength * ring[i + 1]) + sideLength);
+    			}
+    		} else {
+    			for (double i = 0; i <= amountOfSides; i++) {
+    				double angle = i * Maths.TAU / amountOfSides;
+    				shapeVertex(x + (sideLength * Math.cos(angle)) + sideLength, y + (sideLength * Math.sin(angle)) + sideLength);
+    			}
     		}
     	}
-    	end();
-    	stop();
+    	endShape();
+    	stopShape();
     }
     
     public static void polygon(Vec location, double sideLength, int amountOfSides, boolean filled, Color color) {
@@ -525,17 +729,39 @@ public class Render {
     }
     
     public static void line(double firstX, double firstY, double secondX, double secondY, int lineWidth, Color color) {
-    	start();
+    	startShape();
     	if (color != null)
     		color(color);
     	lineWidth(lineWidth <= 0 ? 1 : lineWidth);
-    	begin(GL_LINES);
+    	beginShape(GL_LINES);
     	{
-    		vertex(firstX, firstY);
-    		vertex(secondX, secondY);
+    		shapeVertex(firstX, firstY);
+    		shapeVertex(secondX, secondY);
     	}
-    	end();
-    	stop();
+    	endShape();
+    	stopShape();
+    }
+    
+    public static void line(float firstX, float firstY, float secondX, float secondY, int lineWidth, Color color) {
+    	startShape();
+    	if (color != null)
+    		color(color);
+    	lineWidth(lineWidth <= 0 ? 1 : lineWidth);
+    	beginShape(GL_LINES);
+    	{
+    		shapeVertex(firstX, firstY);
+    		shapeVertex(secondX, secondY);
+    	}
+    	endShape();
+    	stopShape();
+    }
+    
+    public static void line(Vec2f firstLocation, Vec2f secondLocation, int lineWidth, Color color) {
+    	line(firstLocation.x, firstLocation.y, secondLocation.x, secondLocation.y, lineWidth, color);
+    }
+    
+    public static void line(Vec2f firstLocation, Vec2f secondLocation) {
+    	line(firstLocation.x, firstLocation.y, secondLocation.x, secondLocation.y, 1, null);
     }
     
     public static void line(Vec firstLocation, Vec secondLocation, int lineWidth, Color color) {
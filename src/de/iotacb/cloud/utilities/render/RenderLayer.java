@@ -0,0 +1,307 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_LIGHTING;
+import static org.lwjgl.opengl.GL11.GL_LINEAR;
+import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
+import static org.lwjgl.opengl.GL11.GL_ONE;
+import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_PROJECTION;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import static org.lwjgl.opengl.GL11.GL_RGBA8;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_T;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.GL_VIEWPORT_BIT;
+import static org.lwjgl.opengl.GL11.glBlendFunc;
+import static org.lwjgl.opengl.GL11.glClear;
+import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11.glColor4f;
+import static org.lwjgl.opengl.GL11.glGenTextures;
+import static org.lwjgl.opengl.GL11.glLoadIdentity;
+import static org.lwjgl.opengl.GL11.glMatrixMode;
+import static org.lwjgl.opengl.GL11.glOrtho;
+import static org.lwjgl.opengl.GL11.glPopAttrib;
+import static org.lwjgl.opengl.GL11.glPopMatrix;
+import static org.lwjgl.opengl.GL11.glPushAttrib;
+import static org.lwjgl.opengl.GL11.glPushMatrix;
+import static org.lwjgl.opengl.GL11.glTexCoord2d;
+import static org.lwjgl.opengl.GL11.glTexImage2D;
+import static org.lwjgl.opengl.GL11.glTexParameteri;
+import static org.lwjgl.opengl.GL11.glTranslated;
+import static org.lwjgl.opengl.GL11.glViewport;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.opengl.GL30.GL_COLOR_ATTACHMENT0;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+import static org.lwjgl.opengl.GL30.glBindFramebuffer;
+import static org.lwjgl.opengl.GL30.glCheckFramebufferStatus;
+import static org.lwjgl.opengl.GL30.glDeleteFramebuffers;
+import static org.lwjgl.opengl.GL30.glFramebufferTexture2D;
+import static org.lwjgl.opengl.GL30.glGenFramebuffers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Texture which content is drawn once and then drawn as a single quad every frame,
+ * for content which rarely changes like backgrounds and gui panels.
+ * <p>
+ * The layer covers the world rectangle at its location with its size, everything drawn between
+ * {@link #begin()} and {@link #end()} uses the same coordinates as outside of the layer.
+ * The content has to be drawn again after {@link #markDirty()}, see {@link #redraw(Runnable)}.
+ * Every change increases the version of the layer, so another thread can mark the layer dirty
+ * while the content of an older version is drawn.
+ */
+public class RenderLayer {
+
+	int framebufferId, textureId, width, height;
+
+	double x, y;
+
+	boolean drawing;
+
+	// the content is up to date while the drawn version matches the version
+	AtomicInteger version;
+
+	int drawingVersion, drawnVersion;
+
+	RenderLayer previousLayer;
+
+	int redraws;
+
+	public RenderLayer(int width, int height) {
+		this(0, 0, width, height);
+	}
+
+	public RenderLayer(double x, double y, int width, int height) {
+		this.x = x;
+		this.y = y;
+		create(width, height);
+	}
+
+	private void create(int width, int height) {
+		this.width = Math.max(1, width);
+		this.height = Math.max(1, height);
+		if (this.version == null) {
+			this.version = new AtomicInteger();
+		}
+		this.version.incrementAndGet();
+
+		this.textureId = glGenTextures();
+		Textures.bind(this.textureId);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, this.width, this.height, 0, GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+		this.framebufferId = glGenFramebuffers();
+		glBindFramebuffer(GL_FRAMEBUFFER, this.framebufferId);
+		glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, this.textureId, 0);
+		if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
+			try {
+				throw new Exception("Framebuffer of render layer is incomplete. Error: #007");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		glBindFramebuffer(GL_FRAMEBUFFER, 0);
+	}
+
+	/**
+	 * Redirects drawing into the cleared layer until {@link #end()}.
+	 */
+	public void begin() {
+		begin(this.version.get());
+	}
+
+	/**
+	 * Redirects drawing into the cleared layer, the content drawn until {@link #end()} is the one of the given version.
+	 */
+	public void begin(int version) {
+		if (this.drawing) {
+			return;
+		}
+		this.drawing = true;
+		this.drawingVersion = version;
+
+		Render.flush();
+		glBindFramebuffer(GL_FRAMEBUFFER, this.framebufferId);
+		glPushAttrib(GL_VIEWPORT_BIT | GL_COLOR_BUFFER_BIT);
+		glViewport(0, 0, this.width, this.height);
+		glClearColor(0, 0, 0, 0);
+		glClear(GL_COLOR_BUFFER_BIT);
+		this.previousLayer = Render.boundLayer;
+		Render.boundLayer = this;
+		Render.blendAlpha();
+
+		glMatrixMode(GL_PROJECTION);
+		glPushMatrix();
+		glLoadIdentity();
+		glOrtho(0, this.width, this.height, 0, -1, 1);
+		glMatrixMode(GL_MODELVIEW);
+		glPushMatrix();
+		glLoadIdentity();
+		glTranslated(-this.x, -this.y, 0);
+	}
+
+	public void end() {
+		if (!this.drawing) {
+			return;
+		}
+		Render.flush();
+		glMatrixMode(GL_PROJECTION);
+		glPopMatrix();
+		glMatrixMode(GL_MODELVIEW);
+		glPopMatrix();
+		glPopAttrib();
+		// a layer drawn while drawing into another one hands drawing back to the outer layer
+		glBindFramebuffer(GL_FRAMEBUFFER, this.previousLayer != null ? this.previousLayer.framebufferId : 0);
+		Render.boundLayer = this.previousLayer;
+		this.previousLayer = null;
+
+		this.drawing = false;
+		this.drawnVersion = this.drawingVersion;
+		this.redraws++;
+	}
+
+	/**
+	 * Runs the content into the layer when it is dirty, returns whether it was drawn.
+	 */
+	public boolean redraw(Runnable content) {
+		int version = this.version.get();
+		if (version == this.drawnVersion) {
+			return false;
+		}
+		begin(version);
+		content.run();
+		end();
+		return true;
+	}
+
+	/**
+	 * Draws the layer at its location.
+	 */
+	public void draw() {
+		draw(this.x, this.y, this.width, this.height);
+	}
+
+	/**
+	 * Draws the layer as one textured quad. Content drawn into the layer is blended with its alpha
+	 * while the alpha of the layer is accumulated separately, so the colors are premultiplied
+	 * and the layer is blended with one instead of its alpha.
+	 */
+	public void draw(double x, double y, double width, double height) {
+		Render.push();
+
+		Render.enable(GL_TEXTURE_2D);
+		Render.enable(GL_BLEND);
+		Render.disable(GL_LIGHTING);
+		glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+		glColor4f(1, 1, 1, 1);
+		Textures.bind(this.textureId);
+
+		// the rows of the texture start at the bottom
+		Render.begin(GL_QUADS);
+		{
+			glTexCoord2d(0, 0);
+			Render.vertex(x, y + height);
+			glTexCoord2d(1, 0);
+			Render.vertex(x + width, y + height);
+			glTexCoord2d(1, 1);
+			Render.vertex(x + width, y);
+			glTexCoord2d(0, 1);
+			Render.vertex(x, y);
+		}
+		Render.end();
+
+		Render.blendAlpha();
+		Render.enable(GL_LIGHTING);
+		Render.disable(GL_BLEND);
+		Render.disable(GL_TEXTURE_2D);
+
+		Render.pop();
+	}
+
+	/**
+	 * Recreates the texture with the new size, the content has to be drawn again.
+	 */
+	public void resize(int width, int height) {
+		if (width == this.width && height == this.height) {
+			return;
+		}
+		destroy();
+		create(width, height);
+	}
+
+	public void destroy() {
+		glDeleteFramebuffers(this.framebufferId);
+		Textures.delete(this.textureId);
+		this.framebufferId = 0;
+		this.textureId = 0;
+	}
+
+	public void markDirty() {
+		this.version.incrementAndGet();
+	}
+
+	public boolean isDirty() {
+		return this.version.get() != this.drawnVersion;
+	}
+
+	/**
+	 * Returns the number of changes of the layer, taken before its content is copied for drawing on another thread.
+	 */
+	public int getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Returns the version the current content was drawn for.
+	 */
+	public int getDrawnVersion() {
+		return drawnVersion;
+	}
+
+	public void setLocation(double x, double y) {
+		if (x != this.x || y != this.y) {
+			this.x = x;
+			this.y = y;
+			this.version.incrementAndGet();
+		}
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getTextureId() {
+		return textureId;
+	}
+
+	/**
+	 * Number of times the content was drawn into the layer.
+	 */
+	public int getRedraws() {
+		return redraws;
+	}
+
+}
@@ -0,0 +1,219 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_COLOR_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_CULL_FACE;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_LIGHTING;
+import static org.lwjgl.opengl.GL11.GL_LINES;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLE_FAN;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
+import static org.lwjgl.opengl.GL11.glColorPointer;
+import static org.lwjgl.opengl.GL11.glDisable;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glEnable;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
+import static org.lwjgl.opengl.GL11.glLineWidth;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * Collects colored triangles and lines into one interleaved buffer (x, y, r, g, b, a).
+ * Triangle fans and line lists are split up while they are recorded, the batch
+ * is flushed when the primitive type or the line width changes.
+ */
+public class ShapeBatch {
+
+	static final int VERTEX_SIZE = 6;
+
+	static int vertices, frameVertices, flushes, frameFlushes;
+
+	float[] batchVertices;
+
+	FloatBuffer vertexBuffer;
+
+	int maxVertices, vertexCount, bufferId, batchMode = GL_TRIANGLES;
+
+	float red = 1, green = 1, blue = 1, alpha = 1, lineWidth = 1;
+
+	int shapeMode, shapeVertices;
+	float firstX, firstY, lastX, lastY;
+
+	public ShapeBatch() {
+		this(30000);
+	}
+
+	public ShapeBatch(int maxVertices) {
+		this.maxVertices = maxVertices;
+		this.batchVertices = new float[maxVertices * VERTEX_SIZE];
+		this.vertexBuffer = BufferUtils.createFloatBuffer(maxVertices * VERTEX_SIZE);
+		this.bufferId = glGenBuffers();
+
+		glBindBuffer(GL_ARRAY_BUFFER, this.bufferId);
+		glBufferData(GL_ARRAY_BUFFER, (long) this.vertexBuffer.capacity() * Float.BYTES, GL_STREAM_DRAW);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+	}
+
+	public void begin(int glMode) {
+		this.shapeMode = glMode;
+		this.shapeVertices = 0;
+	}
+
+	public void vertex(double x, double y) {
+		vertex((float) x, (float) y);
+	}
+
+	public void vertex(float vertexX, float vertexY) {
+		if (this.shapeMode == GL_LINES) {
+			if (this.shapeVertices % 2 == 1) {
+				line(this.lastX, this.lastY, vertexX, vertexY);
+			}
+		} else if (this.shapeMode == GL_TRIANGLE_FAN) {
+			if (this.shapeVertices == 0) {
+				this.firstX = vertexX;
+				this.firstY = vertexY;
+			} else if (this.shapeVertices > 1) {
+				triangle(this.firstX, this.firstY, this.lastX, this.lastY, vertexX, vertexY);
+			}
+		}
+		this.lastX = vertexX;
+		this.lastY = vertexY;
+		this.shapeVertices++;
+	}
+
+	public void end() {
+		this.shapeVertices = 0;
+	}
+
+	public void triangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		prepare(GL_TRIANGLES, 3);
+		putVertex(x1, y1);
+		putVertex(x2, y2);
+		putVertex(x3, y3);
+	}
+
+	public void line(float x1, float y1, float x2, float y2) {
+		prepare(GL_LINES, 2);
+		putVertex(x1, y1);
+		putVertex(x2, y2);
+	}
+
+	private void prepare(int glMode, int amount) {
+		if (this.batchMode != glMode || this.vertexCount + amount > this.maxVertices) {
+			flush();
+			this.batchMode = glMode;
+		}
+	}
+
+	private void putVertex(float x, float y) {
+		int offset = this.vertexCount++ * VERTEX_SIZE;
+		float[] data = this.batchVertices;
+		data[offset++] = x;
+		data[offset++] = y;
+		data[offset++] = this.red;
+		data[offset++] = this.green;
+		data[offset++] = this.blue;
+		data[offset] = this.alpha;
+	}
+
+	public void flush() {
+		if (this.vertexCount == 0) {
+			return;
+		}
+
+		this.vertexBuffer.clear();
+		this.vertexBuffer.put(this.batchVertices, 0, this.vertexCount * VERTEX_SIZE);
+		this.vertexBuffer.flip();
+
+		glEnable(GL_BLEND);
+		Render.blendAlpha();
+		glDisable(GL_LIGHTING);
+		glDisable(GL_TEXTURE_2D);
+		glDisable(GL_CULL_FACE);
+		glLineWidth(this.lineWidth);
+
+		glBindBuffer(GL_ARRAY_BUFFER, this.bufferId);
+		glBufferData(GL_ARRAY_BUFFER, (long) this.vertexBuffer.capacity() * Float.BYTES, GL_STREAM_DRAW); // orphan the old storage
+		glBufferSubData(GL_ARRAY_BUFFER, 0, this.vertexBuffer);
+
+		glEnableClientState(GL_VERTEX_ARRAY);
+		glEnableClientState(GL_COLOR_ARRAY);
+		glVertexPointer(2, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 0);
+		glColorPointer(4, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 2 * Float.BYTES);
+		glDrawArrays(this.batchMode, 0, this.vertexCount);
+		glDisableClientState(GL_COLOR_ARRAY);
+		glDisableClientState(GL_VERTEX_ARRAY);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+		glEnable(GL_CULL_FACE);
+		glEnable(GL_TEXTURE_2D);
+		glEnable(GL_LIGHTING);
+		glDisable(GL_BLEND);
+
+		frameVertices += this.vertexCount;
+		frameFlushes++;
+		this.vertexCount = 0;
+	}
+
+	public void destroy() {
+		glDeleteBuffers(this.bufferId);
+		this.bufferId = 0;
+	}
+
+	public void color(double red, double green, double blue, double alpha) {
+		color((float) red, (float) green, (float) blue, (float) alpha);
+	}
+
+	public void color(float red, float green, float blue, float alpha) {
+		this.red = red;
+		this.green = green;
+		this.blue = blue;
+		this.alpha = alpha;
+	}
+
+	public void setLineWidth(float lineWidth) {
+		if (this.lineWidth != lineWidth) {
+			if (this.batchMode == GL_LINES) {
+				flush();
+			}
+			this.lineWidth = lineWidth;
+		}
+	}
+
+	public boolean isEmpty() {
+		return vertexCount == 0;
+	}
+
+	/**
+	 * Called by the window once per frame, publishes the counters of the finished frame.
+	 */
+	public static void nextFrame() {
+		vertices = frameVertices;
+		flushes = frameFlushes;
+
+		frameVertices = 0;
+		frameFlushes = 0;
+	}
+
+	public static int getVertices() {
+		return vertices;
+	}
+
+	public static int getFlushes() {
+		return flushes;
+	}
+
+}
@@ -0,0 +1,244 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_COLOR_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_LIGHTING;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_COORD_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
+import static org.lwjgl.opengl.GL11.glColorPointer;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
+import static org.lwjgl.opengl.GL11.glTexCoordPointer;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+import java.awt.Color;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * Collects textured quads and draws them with one glDrawArrays call per texture.
+ * Every vertex is stored as x, y, u, v, r, g, b, a.
+ * Between {@link #begin()} and {@link #end()} the batch is flushed by {@link Render#flush()}, so transforms
+ * through {@link Render} and the camera only apply to the sprites drawn after them.
+ */
+public class SpriteBatch {
+
+	static final int VERTEX_SIZE = 8, SPRITE_SIZE = VERTEX_SIZE * 4;
+
+	static int drawCalls, frameDrawCalls, vertices, frameVertices, flushes, frameFlushes;
+
+	float[] spriteVertices;
+	int[] spriteTextures;
+	long[] spriteOrder;
+
+	FloatBuffer vertexBuffer;
+
+	int maxSprites, spriteCount, bufferId;
+
+	float red = 1, green = 1, blue = 1, alpha = 1;
+
+	boolean drawing, sorting;
+
+	public SpriteBatch() {
+		this(1000);
+	}
+
+	public SpriteBatch(int maxSprites) {
+		this.maxSprites = maxSprites;
+		this.spriteVertices = new float[maxSprites * SPRITE_SIZE];
+		this.spriteTextures = new int[maxSprites];
+		this.spriteOrder = new long[maxSprites];
+		this.vertexBuffer = BufferUtils.createFloatBuffer(maxSprites * SPRITE_SIZE);
+		this.bufferId = glGenBuffers();
+
+		glBindBuffer(GL_ARRAY_BUFFER, this.bufferId);
+		glBufferData(GL_ARRAY_BUFFER, (long) this.vertexBuffer.capacity() * Float.BYTES, GL_STREAM_DRAW);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+	}
+
+	public void begin() {
+		if (this.drawing) {
+			return;
+		}
+		this.drawing = true;
+
+		Render.flush();
+		Render.spriteBatch = this;
+		Render.enable(GL_TEXTURE_2D);
+		Render.enable(GL_BLEND);
+		Render.disable(GL_LIGHTING);
+		Render.blendAlpha();
+	}
+
+	public void end() {
+		if (!this.drawing) {
+			return;
+		}
+		flush();
+		this.drawing = false;
+		if (Render.spriteBatch == this) {
+			Render.spriteBatch = null;
+		}
+
+		Render.enable(GL_LIGHTING);
+		Render.disable(GL_BLEND);
+		Render.disable(GL_TEXTURE_2D);
+	}
+
+	public void draw(int textureId, double x1, double y1, double x2, double y2, double u1, double v1, double u2, double v2) {
+		if (this.spriteCount == this.maxSprites) {
+			flush();
+		}
+
+		int offset = this.spriteCount * SPRITE_SIZE;
+		offset = putVertex(offset, (float) x1, (float) y2, (float) u1, (float) v2);
+		offset = putVertex(offset, (float) x2, (float) y2, (float) u2, (float) v2);
+		offset = putVertex(offset, (float) x2, (float) y1, (float) u2, (float) v1);
+		putVertex(offset, (float) x1, (float) y1, (float) u1, (float) v1);
+
+		this.spriteTextures[this.spriteCount++] = textureId;
+	}
+
+	public void draw(int textureId, double x, double y, double width, double height) {
+		draw(textureId, x, y, x + width, y + height, 0, 0, 1, 1);
+	}
+
+	private int putVertex(int offset, float x, float y, float u, float v) {
+		float[] data = this.spriteVertices;
+		data[offset++] = x;
+		data[offset++] = y;
+		data[offset++] = u;
+		data[offset++] = v;
+		data[offset++] = this.red;
+		data[offset++] = this.green;
+		data[offset++] = this.blue;
+		data[offset++] = this.alpha;
+		return offset;
+	}
+
+	public void flush() {
+		if (this.spriteCount == 0) {
+			return;
+		}
+		// a shape batch flushed in between leaves texturing disabled
+		Render.enable(GL_TEXTURE_2D);
+		Render.enable(GL_BLEND);
+		Render.blendAlpha();
+
+		// the texture sits in the upper bits, so sorting keeps the submission order for equal textures
+		for (int i = 0; i < this.spriteCount; i++) {
+			this.spriteOrder[i] = (this.sorting ? (long) this.spriteTextures[i] << 32 : 0) | i;
+		}
+		if (this.sorting) {
+			Arrays.sort(this.spriteOrder, 0, this.spriteCount);
+		}
+
+		this.vertexBuffer.clear();
+		for (int i = 0; i < this.spriteCount; i++) {
+			this.vertexBuffer.put(this.spriteVertices, (int) this.spriteOrder[i] * SPRITE_SIZE, SPRITE_SIZE);
+		}
+		this.vertexBuffer.flip();
+
+		glBindBuffer(GL_ARRAY_BUFFER, this.bufferId);
+		glBufferData(GL_ARRAY_BUFFER, (long) this.vertexBuffer.capacity() * Float.BYTES, GL_STREAM_DRAW); // orphan the old storage
+		glBufferSubData(GL_ARRAY_BUFFER, 0, this.vertexBuffer);
+
+		glEnableClientState(GL_VERTEX_ARRAY);
+		glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+		glEnableClientState(GL_COLOR_ARRAY);
+		glVertexPointer(2, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 0);
+		glTexCoordPointer(2, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 2 * Float.BYTES);
+		glColorPointer(4, GL_FLOAT, VERTEX_SIZE * Float.BYTES, 4 * Float.BYTES);
+
+		int runStart = 0;
+		for (int i = 1; i <= this.spriteCount; i++) {
+			int runTexture = this.spriteTextures[(int) this.spriteOrder[runStart]];
+			if (i == this.spriteCount || this.spriteTextures[(int) this.spriteOrder[i]] != runTexture) {
+				Textures.bind(runTexture);
+				glDrawArrays(GL_QUADS, runStart * 4, (i - runStart) * 4);
+				frameDrawCalls++;
+				runStart = i;
+			}
+		}
+
+		glDisableClientState(GL_COLOR_ARRAY);
+		glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+		glDisableClientState(GL_VERTEX_ARRAY);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+		frameVertices += this.spriteCount * 4;
+		frameFlushes++;
+		this.spriteCount = 0;
+	}
+
+	public void destroy() {
+		glDeleteBuffers(this.bufferId);
+		this.bufferId = 0;
+	}
+
+	public void setColor(double red, double green, double blue, double alpha) {
+		this.red = (float) red;
+		this.green = (float) green;
+		this.blue = (float) blue;
+		this.alpha = (float) alpha;
+	}
+
+	public void setColor(Color color) {
+		setColor(color.getRed() / 255.0, color.getGreen() / 255.0, color.getBlue() / 255.0, color.getAlpha() / 255.0);
+	}
+
+	/**
+	 * Sorting groups all sprites of a texture into one draw call, but sprites
+	 * of different textures can end up drawn in a different order.
+	 */
+	public void setSorting(boolean sorting) {
+		this.sorting = sorting;
+	}
+
+	public boolean isSorting() {
+		return sorting;
+	}
+
+	public boolean isDrawing() {
+		return drawing;
+	}
+
+	/**
+	 * Called by the window once per frame, publishes the counters of the finished frame.
+	 */
+	public static void nextFrame() {
+		drawCalls = frameDrawCalls;
+		vertices = frameVertices;
+		flushes = frameFlushes;
+
+		frameDrawCalls = 0;
+		frameVertices = 0;
+		frameFlushes = 0;
+	}
+
+	public static int getDrawCalls() {
+		return drawCalls;
+	}
+
+	public static int getVertices() {
+		return vertices;
+	}
+
+	public static int getFlushes() {
+		return flushes;
+	}
+
+}
@@ -8,33 +8,60 @@ import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
 import static org.lwjgl.opengl.GL11.glDrawArrays;
 import static org.lwjgl.opengl.GL11.glEnableClientState;
 import static org.lwjgl.opengl.GL11.glVertexPointer;
-import static org.lwjgl.stb.STBEasyFont.stb_easy_font_print;
 
 import java.awt.Color;
 import java.nio.ByteBuffer;
 
-import org.lwjgl.BufferUtils;
 import org.lwjgl.stb.STBEasyFont;
 
 import de.iotacb.cloud.utilities.math.Vec;
 
 public class Text {
 	
+	/**
+	 * Vertices of recently drawn strings, shared by all texts because the size is applied as scaling.
+	 */
+	static final TextCache cache = new TextCache(1 << 20);
+	
+	/**
+	 * Draws the texts using a font atlas, created with the first of them.
+	 */
+	static SpriteBatch fontBatch;
+	
 	int textSize = 1;
 	
+	FontAtlas font;
+	
 	public Text(int textSize) {
 		this.textSize = textSize;
 	}
 	
+	/**
+	 * Draws the text with the glyphs of the font atlas, one quad per character.
+	 */
+	public Text(FontAtlas font, int textSize) {
+		this.font = font;
+		this.textSize = textSize;
+	}
+	
 	public void drawText(double x, double y, String text, Color color) {
 		if (color == null) {
 			color = Color.white;
 		}
 		
-		ByteBuffer buffer = BufferUtils.createByteBuffer(text.length() * 300);
-		
+		if (font != null) {
+			if (fontBatch == null) {
+				fontBatch = new SpriteBatch();
+			}
+			fontBatch.setColor(color);
+			fontBatch.begin();
+			font.drawText(fontBatch, x, y, text, textSize / font.pixelHeight);
+			fontBatch.end();
+			return;
+		}
 		
-		int quads = stb_easy_font_print(0, 0, text, null, buffer);
+		ByteBuffer buffer = cache.get(text);
+		int quads = buffer.remaining() / TextCache.BYTES_PER_QUAD;
 		
 		double sizeBuffer = textSize * .14;
 		
@@ -63,6 +90,9 @@ public class Text {
 	}
 	
 	public int getWidth(String text) {
+		if (font != null) {
+			return (int) (font.getWidth(text) * textSize / font.pixelHeight);
+		}
 		return (int)(STBEasyFont.stb_easy_font_width(text) * (textSize * .1325));
 	}
 	
@@ -73,5 +103,50 @@ public class Text {
 	public int getHeight() {
 		return textSize;
 	}
+	
+	public FontAtlas getFont() {
+		return font;
+	}
+	
+	/**
+	 * Sets the maximum bytes of cached vertices, 1 MiB by default. Strings are about 270 bytes per visible character.
+	 */
+	public static void setCacheBudget(long bytes) {
+		cache.setBudget(bytes);
+	}
+	
+	/**
+	 * Frees all cached vertices.
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
+	
+	public static long getCacheSize() {
+		return cache.size;
+	}
+	
+	public static long getCacheHits() {
+		return cache.hits;
+	}
+	
+	public static long getCacheMisses() {
+		return cache.misses;
+	}
+	
+	public static long getCacheEvictions() {
+		return cache.evictions;
+	}
+	
+	/**
+	 * Frees the cached vertices and the batch of the font atlas texts.
+	 */
+	public static void destroy() {
+		cache.clear();
+		if (fontBatch != null) {
+			fontBatch.destroy();
+			fontBatch = null;
+		}
+	}
 
 }
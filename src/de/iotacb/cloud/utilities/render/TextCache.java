@@ -0,0 +1,92 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.stb.STBEasyFont.stb_easy_font_print;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memRealloc;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of the stb easy font vertices of strings, limited by the bytes of all cached vertices.
+ * Strings which do not fit into the budget are printed into a reused scratch buffer instead.
+ * The buffers are allocated with {@link org.lwjgl.system.MemoryUtil} and freed on eviction.
+ */
+class TextCache {
+	
+	static final int BYTES_PER_CHAR = 300, BYTES_PER_QUAD = 64;
+	
+	LinkedHashMap<String, ByteBuffer> entries;
+	
+	ByteBuffer scratch;
+	
+	long budget, size;
+	
+	long hits, misses, evictions;
+	
+	TextCache(long budget) {
+		this.budget = budget;
+		this.entries = new LinkedHashMap<>(64, 0.75f, true);
+	}
+	
+	/**
+	 * Returns the vertices of the text, which are valid until the next call.
+	 */
+	ByteBuffer get(String text) {
+		ByteBuffer vertices = this.entries.get(text);
+		if (vertices != null) {
+			this.hits++;
+			return vertices;
+		}
+		this.misses++;
+		
+		int capacity = Math.max(BYTES_PER_CHAR, text.length() * BYTES_PER_CHAR);
+		if (this.scratch == null) {
+			this.scratch = memAlloc(capacity);
+		} else if (this.scratch.capacity() < capacity) {
+			this.scratch = memRealloc(this.scratch, capacity);
+		}
+		this.scratch.clear();
+		int quads = stb_easy_font_print(0, 0, text, null, this.scratch);
+		int bytes = quads * BYTES_PER_QUAD;
+		this.scratch.limit(bytes);
+		
+		if (bytes == 0 || bytes > this.budget) {
+			return this.scratch;
+		}
+		evict(this.budget - bytes);
+		vertices = memAlloc(bytes);
+		vertices.put(this.scratch).flip();
+		this.entries.put(text, vertices);
+		this.size += bytes;
+		return vertices;
+	}
+	
+	private void evict(long maxSize) {
+		Iterator<Map.Entry<String, ByteBuffer>> iterator = this.entries.entrySet().iterator();
+		while (this.size > maxSize && iterator.hasNext()) {
+			ByteBuffer vertices = iterator.next().getValue();
+			iterator.remove();
+			this.size -= vertices.capacity();
+			memFree(vertices);
+			this.evictions++;
+		}
+	}
+	
+	void setBudget(long budget) {
+		this.budget = budget;
+		evict(budget);
+	}
+	
+	void clear() {
+		evict(-1);
+		if (this.scratch != null) {
+			memFree(this.scratch);
+			this.scratch = null;
+		}
+	}
+	
+}
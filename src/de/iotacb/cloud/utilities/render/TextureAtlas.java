@@ -0,0 +1,370 @@
+package de.iotacb.cloud.utilities.render;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import de.iotacb.cloud.core.window.Window;
+import de.iotacb.cloud.utilities.files.FilesReader;
+import de.iotacb.cloud.utilities.files.FilesWriter;
+
+/**
+ * Packs many image files into one texture using a skyline packer.
+ * The packed images are drawn through {@link AtlasRegion}s, which all share the same texture
+ * and can therefore be drawn by a {@link SpriteBatch} in a single draw call.
+ */
+public class TextureAtlas {
+
+	static final int PADDING = 1;
+
+	Window window;
+
+	BufferedImage atlasImage;
+
+	HashMap<String, AtlasRegion> regions;
+
+	List<File> sourceFiles;
+
+	// the region name of every source file
+	List<String> sourceNames;
+
+	int atlasWidth, atlasHeight, maxSize, textureId;
+
+	/**
+	 * Packs the given files and directories (not recursive) into one texture.
+	 * Regions are named after their file without the extension, files of a directory
+	 * are prefixed with the name of the directory, like "ui/button".
+	 */
+	public TextureAtlas(Window window, int maxSize, File... sources) {
+		this.window = window;
+		this.maxSize = maxSize;
+		this.regions = new HashMap<>();
+		collectFiles(sources);
+		try {
+			pack(this.sourceFiles, this.sourceNames);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		upload();
+	}
+
+	/**
+	 * Loads the atlas from the cache files when they are newer than every source,
+	 * otherwise the sources are packed and written to the cache files.
+	 * The sources are an array, as varargs would make the call ambiguous with the other constructor.
+	 */
+	public TextureAtlas(Window window, int maxSize, File cacheImage, File cacheIndex, File[] sources) {
+		this.window = window;
+		this.maxSize = maxSize;
+		this.regions = new HashMap<>();
+		collectFiles(sources);
+		try {
+			List<File> files = this.sourceFiles;
+			if (isCacheValid(cacheImage, cacheIndex, files)) {
+				load(cacheImage, cacheIndex);
+			} else {
+				pack(files, this.sourceNames);
+				save(cacheImage, cacheIndex);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		upload();
+	}
+
+	private void collectFiles(File... sources) {
+		List<File> files = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		for (File source : sources) {
+			if (source.isDirectory()) {
+				File[] children = source.listFiles((dir, name) -> {
+					String lowerName = name.toLowerCase();
+					return lowerName.endsWith(".png") || lowerName.endsWith(".jpg") || lowerName.endsWith(".jpeg") || lowerName.endsWith(".bmp");
+				});
+				if (children != null) {
+					Arrays.sort(children);
+					for (File child : children) {
+						files.add(child);
+						names.add(source.getName() + "/" + regionName(child));
+					}
+				}
+			} else {
+				files.add(source);
+				names.add(regionName(source));
+			}
+		}
+		this.sourceFiles = files;
+		this.sourceNames = names;
+	}
+
+	/**
+	 * The cache is valid when it is newer than every source and was packed from the same files with the same maximum size.
+	 */
+	private boolean isCacheValid(File cacheImage, File cacheIndex, List<File> files) {
+		if (!cacheImage.exists() || !cacheIndex.exists()) {
+			return false;
+		}
+		long cacheTime = Math.min(cacheImage.lastModified(), cacheIndex.lastModified());
+		for (File file : files) {
+			if (file.lastModified() > cacheTime) {
+				return false;
+			}
+		}
+
+		List<String> header = new ArrayList<>();
+		for (String line : FilesReader.readAsStringList(cacheIndex)) {
+			if (!line.startsWith("region ")) {
+				header.add(line);
+			}
+		}
+		return header.equals(indexHeader(files));
+	}
+
+	private List<String> indexHeader(List<File> files) {
+		List<String> header = new ArrayList<>();
+		// caches of older versions named the regions without their directory
+		header.add("format 2");
+		header.add("maxSize " + this.maxSize);
+		for (File file : files) {
+			header.add("source " + file.getAbsolutePath());
+		}
+		return header;
+	}
+
+	private void pack(List<File> files, List<String> names) throws IOException {
+		List<String> readNames = new ArrayList<>();
+		List<BufferedImage> readImages = new ArrayList<>();
+		for (int i = 0; i < files.size(); i++) {
+			File file = files.get(i);
+			BufferedImage image = ImageIO.read(file);
+			if (image == null) {
+				try {
+					throw new Exception("Image format of " + file.getName() + " is not supported. Error: #008");
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				continue;
+			}
+			readNames.add(names.get(i));
+			readImages.add(image);
+		}
+
+		BufferedImage[] images = readImages.toArray(new BufferedImage[0]);
+		Integer[] order = new Integer[images.length];
+		for (int i = 0; i < images.length; i++) {
+			order[i] = i;
+		}
+
+		// placing the tallest images first keeps the skyline flat
+		Arrays.sort(order, (first, second) -> images[second].getHeight() - images[first].getHeight());
+
+		int[] positions = new int[images.length * 2];
+		this.atlasWidth = Math.min(256, this.maxSize);
+		this.atlasHeight = Math.min(256, this.maxSize);
+		while (!packImages(images, order, positions)) {
+			if (this.atlasWidth >= this.maxSize && this.atlasHeight >= this.maxSize) {
+				try {
+					throw new Exception("Images do not fit into the texture atlas. Error: #005");
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				return;
+			}
+			// the maximum size does not have to be a power of two
+			if (this.atlasWidth <= this.atlasHeight) {
+				this.atlasWidth = Math.min(this.atlasWidth * 2, this.maxSize);
+			} else {
+				this.atlasHeight = Math.min(this.atlasHeight * 2, this.maxSize);
+			}
+		}
+
+		this.atlasImage = new BufferedImage(this.atlasWidth, this.atlasHeight, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = this.atlasImage.createGraphics();
+		for (int i = 0; i < images.length; i++) {
+			BufferedImage image = images[i];
+			int x = positions[i * 2], y = positions[i * 2 + 1];
+			graphics.drawImage(image, x, y, null);
+			addRegion(readNames.get(i), x, y, image.getWidth(), image.getHeight());
+		}
+		graphics.dispose();
+	}
+
+	private boolean packImages(BufferedImage[] images, Integer[] order, int[] positions) {
+		Skyline skyline = new Skyline(this.atlasWidth, this.atlasHeight);
+		for (int index : order) {
+			if (!skyline.insert(images[index].getWidth() + PADDING, images[index].getHeight() + PADDING, positions, index * 2)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String regionName(File file) {
+		String name = file.getName();
+		int extension = name.lastIndexOf('.');
+		return extension > 0 ? name.substring(0, extension) : name;
+	}
+
+	private void addRegion(String name, int x, int y, int width, int height) {
+		if (this.regions.containsKey(name)) {
+			try {
+				throw new Exception("Region " + name + " of the texture atlas is used by more than one image. Error: #009");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		this.regions.put(name, new AtlasRegion(this, name, x, y, width, height));
+	}
+
+	/**
+	 * Writes the packed atlas as png and an index with the format, the maximum size, one "source path" line per packed file
+	 * and one "region x y width height name" line per region.
+	 */
+	public void save(File cacheImage, File cacheIndex) throws IOException {
+		if (this.atlasImage == null) {
+			return;
+		}
+		ImageIO.write(this.atlasImage, "png", cacheImage);
+
+		List<String> index = indexHeader(this.sourceFiles);
+		for (AtlasRegion region : this.regions.values()) {
+			index.add(String.format("region %d %d %d %d %s", region.x, region.y, region.width, region.height, region.name));
+		}
+		FilesWriter.writeStringList(cacheIndex, index);
+	}
+
+	private void load(File cacheImage, File cacheIndex) throws IOException {
+		this.atlasImage = ImageIO.read(cacheImage);
+		this.atlasWidth = this.atlasImage.getWidth();
+		this.atlasHeight = this.atlasImage.getHeight();
+
+		for (String line : FilesReader.readAsStringList(cacheIndex)) {
+			// the name comes last, so it may contain spaces
+			String[] parts = line.split(" ", 6);
+			if (parts.length != 6 || !parts[0].equals("region")) {
+				continue;
+			}
+			addRegion(parts[5], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+					Integer.parseInt(parts[4]));
+		}
+	}
+
+	private void upload() {
+		if (this.atlasImage == null) {
+			return;
+		}
+		ByteBuffer pixelBuffer = Image.toPixelBuffer(this.atlasImage);
+		this.textureId = Textures.upload(this.atlasWidth, this.atlasHeight, pixelBuffer);
+		this.atlasImage = null; // the pixels live on the gpu now
+	}
+
+	public void destroy() {
+		Textures.delete(this.textureId);
+		this.textureId = 0;
+	}
+
+	public AtlasRegion getRegion(String name) {
+		return regions.get(name);
+	}
+
+	public HashMap<String, AtlasRegion> getRegions() {
+		return regions;
+	}
+
+	public int getTextureId() {
+		return textureId;
+	}
+
+	public int getAtlasWidth() {
+		return atlasWidth;
+	}
+
+	public int getAtlasHeight() {
+		return atlasHeight;
+	}
+
+	static class Skyline {
+
+		// every segment is stored as x, y, width
+		List<int[]> segments = new ArrayList<>();
+
+		int width, height;
+
+		Skyline(int width, int height) {
+			this.width = width;
+			this.height = height;
+			this.segments.add(new int[] { 0, 0, width });
+		}
+
+		boolean insert(int rectWidth, int rectHeight, int[] positions, int offset) {
+			int bestIndex = -1, bestX = 0, bestY = Integer.MAX_VALUE;
+			for (int i = 0; i < this.segments.size(); i++) {
+				int y = fit(i, rectWidth);
+				if (y >= 0 && y + rectHeight <= this.height && y < bestY) {
+					bestIndex = i;
+					bestX = this.segments.get(i)[0];
+					bestY = y;
+				}
+			}
+			if (bestIndex == -1) {
+				return false;
+			}
+
+			positions[offset] = bestX;
+			positions[offset + 1] = bestY;
+
+			this.segments.add(bestIndex, new int[] { bestX, bestY + rectHeight, rectWidth });
+			for (int i = bestIndex + 1; i < this.segments.size(); i++) {
+				int[] segment = this.segments.get(i);
+				int overlap = bestX + rectWidth - segment[0];
+				if (overlap <= 0) {
+					break;
+				}
+				segment[0] += overlap;
+				segment[2] -= overlap;
+				if (segment[2] <= 0) {
+					this.segments.remove(i--);
+				} else {
+					break;
+				}
+			}
+			merge();
+			return true;
+		}
+
+		int fit(int index, int rectWidth) {
+			int x = this.segments.get(index)[0];
+			if (x + rectWidth > this.width) {
+				return -1;
+			}
+			int y = 0, widthLeft = rectWidth;
+			while (widthLeft > 0) {
+				int[] segment = this.segments.get(index++);
+				y = Math.max(y, segment[1]);
+				widthLeft -= segment[2];
+			}
+			return y;
+		}
+
+		void merge() {
+			for (int i = 0; i < this.segments.size() - 1; i++) {
+				int[] segment = this.segments.get(i), next = this.segments.get(i + 1);
+				if (segment[1] == next[1]) {
+					segment[2] += next[2];
+					this.segments.remove(i-- + 1);
+				}
+			}
+		}
+
+	}
+
+}
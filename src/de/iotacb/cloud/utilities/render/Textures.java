@@ -0,0 +1,96 @@
+package de.iotacb.cloud.utilities.render;
+
+import static org.lwjgl.opengl.GL11.GL_LINEAR;
+import static org.lwjgl.opengl.GL11.GL_NEAREST;
+import static org.lwjgl.opengl.GL11.GL_RGBA;
+import static org.lwjgl.opengl.GL11.GL_RGBA8;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_S;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_WRAP_T;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL11.glDeleteTextures;
+import static org.lwjgl.opengl.GL11.glGenTextures;
+import static org.lwjgl.opengl.GL11.glTexImage2D;
+import static org.lwjgl.opengl.GL11.glTexParameteri;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * Keeps track of the textures living on the gpu.
+ * Pixels are uploaded once, drawing only binds the texture again.
+ */
+public class Textures {
+
+	static int boundTexture;
+
+	static int binds, frameBinds, uploads, frameUploads;
+
+	static long uploadedBytes, frameUploadedBytes;
+
+	public static int upload(int width, int height, ByteBuffer pixels) {
+		int textureId = glGenTextures();
+
+		bind(textureId);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+		GL30.glGenerateMipmap(GL_TEXTURE_2D);
+
+		frameUploads++;
+		frameUploadedBytes += (long) width * height * 4;
+		return textureId;
+	}
+
+	public static void bind(int textureId) {
+		if (boundTexture == textureId) {
+			return;
+		}
+		glBindTexture(GL_TEXTURE_2D, textureId);
+		boundTexture = textureId;
+		frameBinds++;
+	}
+
+	public static void delete(int textureId) {
+		if (textureId == 0) {
+			return;
+		}
+		if (boundTexture == textureId) {
+			boundTexture = 0;
+		}
+		glDeleteTextures(textureId);
+	}
+
+	/**
+	 * Called by the window once per frame, publishes the counters of the finished frame.
+	 */
+	public static void nextFrame() {
+		binds = frameBinds;
+		uploads = frameUploads;
+		uploadedBytes = frameUploadedBytes;
+
+		frameBinds = 0;
+		frameUploads = 0;
+		frameUploadedBytes = 0;
+	}
+
+	public static int getBinds() {
+		return binds;
+	}
+
+	public static int getUploads() {
+		return uploads;
+	}
+
+	public static long getUploadedBytes() {
+		return uploadedBytes;
+	}
+
+}